@@ -0,0 +1,80 @@
+package com.lucas.beerstock.admission;
+
+/**
+ * Gradient-style concurrency limit: the limit shrinks when the short-term average latency rises
+ * above the long-term baseline and grows by a small queue allowance while latency stays flat.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double SHORT_RTT_WEIGHT = 0.1;
+    private static final double LONG_RTT_WEIGHT = 1.0 / 600;
+    private static final double DROP_BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private double limit;
+    private double shortRtt;
+    private double longRtt;
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double smoothing) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.limit = initialLimit;
+    }
+
+    public synchronized boolean tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (limit * share));
+        if (inFlight >= allowed) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    public synchronized void release(long rttNanos) {
+        int inFlightAtRelease = inFlight--;
+        if (rttNanos > 0) {
+            onSample(rttNanos, inFlightAtRelease);
+        }
+    }
+
+    /**
+     * Releases a request that failed instead of completing; its latency says nothing useful about
+     * the limit, so the failure is treated as a drop and the limit backs off multiplicatively.
+     */
+    public synchronized void releaseDropped() {
+        inFlight--;
+        limit = Math.max(minLimit, limit * DROP_BACKOFF_RATIO);
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private void onSample(long rttNanos, int inFlightAtRelease) {
+        shortRtt = shortRtt == 0 ? rttNanos : shortRtt + (rttNanos - shortRtt) * SHORT_RTT_WEIGHT;
+        longRtt = longRtt == 0 ? rttNanos : longRtt + (rttNanos - longRtt) * LONG_RTT_WEIGHT;
+
+        // After a sustained latency increase, let the baseline catch up instead of throttling forever.
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        // Application-limited: too little traffic to tell anything about the limit.
+        if (inFlightAtRelease < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, longRtt / shortRtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = limit * (1 - smoothing) + newLimit * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, limit));
+    }
+}
@@ -0,0 +1,130 @@
+package com.lucas.beerstock.admission;
+
+import com.lucas.beerstock.config.AdmissionProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@ConditionalOnProperty(prefix = "beerstock.admission", name = "enabled", matchIfMissing = true)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final String BEER_API_URL_PATH = "/api/v1/beers";
+    private static final String BEER_API_LOOKUP_URL_PATH = BEER_API_URL_PATH + "/lookup";
+    private static final String REJECTED_METRIC = "beerstock.admission.rejected";
+
+    private final AdmissionProperties admissionProperties;
+    private final MeterRegistry meterRegistry;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final Map<RequestClass, TokenBucket> endpointBuckets = new EnumMap<>(RequestClass.class);
+    private final Map<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AdmissionControlFilter(AdmissionProperties admissionProperties, MeterRegistry meterRegistry) {
+        this.admissionProperties = admissionProperties;
+        this.meterRegistry = meterRegistry;
+        this.concurrencyLimit = new AdaptiveConcurrencyLimit(admissionProperties.getInitialLimit(),
+                admissionProperties.getMinLimit(), admissionProperties.getMaxLimit(),
+                admissionProperties.getSmoothing());
+        admissionProperties.getEndpoints().forEach((requestClass, bucket) ->
+                endpointBuckets.put(requestClass, new TokenBucket(bucket.getCapacity(), bucket.getRefillPerSecond())));
+
+        Gauge.builder("beerstock.admission.limit", concurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+                .register(meterRegistry);
+        Gauge.builder("beerstock.admission.in-flight", concurrencyLimit, AdaptiveConcurrencyLimit::getInFlight)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(BEER_API_URL_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestClass requestClass = classify(request);
+
+        TokenBucket endpointBucket = endpointBuckets.get(requestClass);
+        if (endpointBucket != null && !endpointBucket.tryConsume()) {
+            reject(response, requestClass, HttpStatus.TOO_MANY_REQUESTS, "endpoint-rate");
+            return;
+        }
+        if (!clientBucket(requestClass, request.getRemoteAddr()).tryConsume()) {
+            reject(response, requestClass, HttpStatus.TOO_MANY_REQUESTS, "client-rate");
+            return;
+        }
+
+        double share = requestClass == RequestClass.READ ? 1.0 : admissionProperties.getLowPriorityShare();
+        if (!concurrencyLimit.tryAcquire(share)) {
+            reject(response, requestClass, HttpStatus.SERVICE_UNAVAILABLE, "concurrency");
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException | Error e) {
+            concurrencyLimit.releaseDropped();
+            throw e;
+        }
+        // Controller exceptions are usually resolved to an error status before they get here, and a database
+        // that fails fast must not look like a quick success.
+        if (response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+            concurrencyLimit.releaseDropped();
+        } else {
+            concurrencyLimit.release(System.nanoTime() - start);
+        }
+    }
+
+    RequestClass classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = request.getRequestURI();
+        if (HttpMethod.GET.matches(method)) {
+            return path.equals(BEER_API_URL_PATH) || path.equals(BEER_API_URL_PATH + "/")
+                    ? RequestClass.LIST
+                    : RequestClass.READ;
+        }
+        if (HttpMethod.POST.matches(method) && path.equals(BEER_API_LOOKUP_URL_PATH)) {
+            return RequestClass.READ;
+        }
+        return RequestClass.WRITE;
+    }
+
+    private TokenBucket clientBucket(RequestClass requestClass, String client) {
+        // Bounded by a coarse reset rather than LRU eviction; a reset only refills buckets early.
+        if (clientBuckets.size() >= admissionProperties.getMaxTrackedClients()) {
+            clientBuckets.clear();
+        }
+        AdmissionProperties.Bucket bucket = admissionProperties.getClient();
+        return clientBuckets.computeIfAbsent(requestClass + ":" + client,
+                key -> new TokenBucket(bucket.getCapacity(), bucket.getRefillPerSecond()));
+    }
+
+    private void reject(HttpServletResponse response, RequestClass requestClass, HttpStatus status, String reason)
+            throws IOException {
+        meterRegistry.counter(REJECTED_METRIC, "class", requestClass.name().toLowerCase(), "reason", reason)
+                .increment();
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(admissionProperties.getRetryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write(String.format("{\"status\":%d,\"error\":\"%s\",\"reason\":\"%s\"}",
+                status.value(), status.getReasonPhrase(), reason));
+    }
+}
@@ -0,0 +1,8 @@
+package com.lucas.beerstock.admission;
+
+public enum RequestClass {
+
+    READ,
+    LIST,
+    WRITE
+}
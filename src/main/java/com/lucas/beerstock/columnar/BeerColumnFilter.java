@@ -0,0 +1,23 @@
+package com.lucas.beerstock.columnar;
+
+import com.lucas.beerstock.enums.BeerType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerColumnFilter {
+
+    private BeerType type;
+
+    private String brand;
+
+    /**
+     * Keeps only beers filled up to this percentage of their max.
+     */
+    private Integer maxFillPercent;
+}
@@ -0,0 +1,436 @@
+package com.lucas.beerstock.columnar;
+
+import com.lucas.beerstock.config.ColumnarProperties;
+import com.lucas.beerstock.datasource.ThreadLocalScope;
+import com.lucas.beerstock.dto.BeerDTO;
+import com.lucas.beerstock.dto.BeerTypeStatsDTO;
+import com.lucas.beerstock.dto.CatalogueStatsDTO;
+import com.lucas.beerstock.entity.Beer;
+import com.lucas.beerstock.enums.BeerType;
+import com.lucas.beerstock.repository.BeerRepository;
+import com.lucas.beerstock.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Column-oriented, in-memory copy of the catalogue for scans and aggregations.
+ *
+ * <p>Rows are kept sorted by id in parallel primitive arrays: ids, quantity and max as numbers, the type
+ * as its ordinal byte and name and brand as dictionary codes. Filters and aggregations walk the arrays
+ * without creating an object per row; only the beers actually returned are materialized.
+ *
+ * <p>Writes are applied after the surrounding transaction commits. Quantity changes are applied as
+ * deltas so concurrent increments commute regardless of the order their commits are observed in.
+ */
+@Slf4j
+@Component
+@DependsOn("beerSnapshotService")
+public class BeerColumnStore {
+
+    private static final BeerType[] TYPES = BeerType.values();
+    private static final int INITIAL_CAPACITY = 1_024;
+    private static final int ANY = -1;
+    private static final int NO_MATCH = -2;
+
+    private final BeerRepository beerRepository;
+    private final ShardRouter shardRouter;
+    private final ColumnarProperties columnarProperties;
+    private final TransactionTemplate loadTransaction;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] ids;
+    private int[] quantities;
+    private int[] maxes;
+    private byte[] types;
+    private int[] nameCodes;
+    private int[] brandCodes;
+    private StringDictionary names;
+    private StringDictionary brands;
+    private int size;
+    private volatile boolean loaded;
+
+    @Autowired
+    public BeerColumnStore(BeerRepository beerRepository, ShardRouter shardRouter,
+                           TransactionTemplate transactionTemplate, ColumnarProperties columnarProperties) {
+        this.beerRepository = beerRepository;
+        this.shardRouter = shardRouter;
+        this.columnarProperties = columnarProperties;
+        // Read-write so the load reads the primary: a lagging replica would seed the store with stale stock.
+        this.loadTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        clear();
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!columnarProperties.isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            clear();
+            // Loaded on the calling thread: this runs during context startup, where shard workers could
+            // block on bean creation. Shards interleave ids, so rows are sorted once all are in.
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                try (ThreadLocalScope scope = shardRouter.enter(shard)) {
+                    loadShard();
+                }
+            }
+            sortById(0, size - 1);
+            loaded = true;
+        } finally {
+            writeLock.unlock();
+        }
+        log.info("Loaded {} beers into the column store in {} ms", size, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public int size() {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return size;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    public void put(Beer beer) {
+        if (!loaded) {
+            return;
+        }
+        long id = beer.getId();
+        String name = beer.getName();
+        String brand = beer.getBrand();
+        int quantity = beer.getQuantity();
+        int max = beer.getMax();
+        BeerType type = beer.getType();
+        afterCommit(() -> write(() -> upsert(id, name, brand, quantity, max, type)));
+    }
+
+    public void adjustQuantity(Long id, int delta) {
+        if (!loaded) {
+            return;
+        }
+        afterCommit(() -> write(() -> {
+            int row = rowOf(id);
+            if (row >= 0) {
+                quantities[row] += delta;
+            }
+        }));
+    }
+
+    public void remove(Long id) {
+        if (!loaded) {
+            return;
+        }
+        afterCommit(() -> write(() -> {
+            int row = rowOf(id);
+            if (row >= 0) {
+                shift(row + 1, row, size - row - 1);
+                size--;
+            }
+        }));
+    }
+
+    /**
+     * Returns up to {@code limit} beers matching {@code filter}, in id order.
+     */
+    public List<BeerDTO> scan(BeerColumnFilter filter, int limit) {
+        ScannedRows rows;
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            // Only copy the matching rows here; the DTOs are built once writers are no longer held up.
+            int typeOrdinal = typeOrdinalOf(filter);
+            int brandCode = brandCodeOf(filter);
+            int maxFillPercent = filter.getMaxFillPercent() == null ? ANY : filter.getMaxFillPercent();
+            rows = new ScannedRows(brandCode == NO_MATCH ? 0 : Math.max(0, Math.min(limit, size)));
+            for (int row = 0; row < size && !rows.isFull(); row++) {
+                if (matches(row, typeOrdinal, brandCode, maxFillPercent)) {
+                    rows.add(ids[row], names.decode(nameCodes[row]), brands.decode(brandCodes[row]), maxes[row],
+                            quantities[row], types[row]);
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+        return rows.toDTOs();
+    }
+
+    public CatalogueStatsDTO aggregate(BeerColumnFilter filter) {
+        long[] beersByType = new long[TYPES.length];
+        long[] quantityByType = new long[TYPES.length];
+        long[] capacityByType = new long[TYPES.length];
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            int typeOrdinal = typeOrdinalOf(filter);
+            int brandCode = brandCodeOf(filter);
+            int maxFillPercent = filter.getMaxFillPercent() == null ? ANY : filter.getMaxFillPercent();
+            for (int row = 0; row < size && brandCode != NO_MATCH; row++) {
+                if (matches(row, typeOrdinal, brandCode, maxFillPercent)) {
+                    beersByType[types[row]]++;
+                    quantityByType[types[row]] += quantities[row];
+                    capacityByType[types[row]] += maxes[row];
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+
+        CatalogueStatsDTO stats = CatalogueStatsDTO.builder().byType(new ArrayList<>()).build();
+        for (BeerType type : TYPES) {
+            int ordinal = type.ordinal();
+            if (beersByType[ordinal] == 0) {
+                continue;
+            }
+            stats.getByType().add(new BeerTypeStatsDTO(type, beersByType[ordinal], quantityByType[ordinal],
+                    capacityByType[ordinal]));
+            stats.setBeers(stats.getBeers() + beersByType[ordinal]);
+            stats.setTotalQuantity(stats.getTotalQuantity() + quantityByType[ordinal]);
+            stats.setTotalCapacity(stats.getTotalCapacity() + capacityByType[ordinal]);
+        }
+        stats.setFillPercent(stats.getTotalCapacity() == 0 ? 0
+                : stats.getTotalQuantity() * 100.0 / stats.getTotalCapacity());
+        return stats;
+    }
+
+    private void loadShard() {
+        Pageable chunkPage = PageRequest.of(0, Math.max(1, columnarProperties.getLoadChunkSize()));
+        long lastId = 0;
+        while (true) {
+            long afterId = lastId;
+            List<Beer> chunk = loadTransaction.execute(
+                    status -> beerRepository.findByIdGreaterThanOrderByIdAsc(afterId, chunkPage));
+            if (chunk == null || chunk.isEmpty()) {
+                return;
+            }
+            chunk.forEach(beer -> append(beer.getId(), beer.getName(), beer.getBrand(), beer.getQuantity(),
+                    beer.getMax(), beer.getType()));
+            lastId = chunk.get(chunk.size() - 1).getId();
+            if (chunk.size() < chunkPage.getPageSize()) {
+                return;
+            }
+        }
+    }
+
+    private boolean matches(int row, int typeOrdinal, int brandCode, int maxFillPercent) {
+        return (typeOrdinal == ANY || types[row] == typeOrdinal)
+                && (brandCode == ANY || brandCodes[row] == brandCode)
+                && (maxFillPercent == ANY || quantities[row] * 100L <= (long) maxes[row] * maxFillPercent);
+    }
+
+    private int typeOrdinalOf(BeerColumnFilter filter) {
+        return filter.getType() == null ? ANY : filter.getType().ordinal();
+    }
+
+    private int brandCodeOf(BeerColumnFilter filter) {
+        if (filter.getBrand() == null) {
+            return ANY;
+        }
+        int brandCode = brands.codeOf(filter.getBrand());
+        return brandCode == StringDictionary.MISSING ? NO_MATCH : brandCode;
+    }
+
+    private void upsert(long id, String name, String brand, int quantity, int max, BeerType type) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        if (row < 0) {
+            row = -row - 1;
+            ensureCapacity(size + 1);
+            shift(row, row + 1, size - row);
+            size++;
+        }
+        set(row, id, name, brand, quantity, max, type);
+    }
+
+    private void append(long id, String name, String brand, int quantity, int max, BeerType type) {
+        ensureCapacity(size + 1);
+        set(size++, id, name, brand, quantity, max, type);
+    }
+
+    private void set(int row, long id, String name, String brand, int quantity, int max, BeerType type) {
+        ids[row] = id;
+        nameCodes[row] = names.encode(name);
+        brandCodes[row] = brands.encode(brand);
+        quantities[row] = quantity;
+        maxes[row] = max;
+        types[row] = (byte) type.ordinal();
+    }
+
+    private int rowOf(long id) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        return row < 0 ? -1 : row;
+    }
+
+    private void shift(int from, int to, int length) {
+        System.arraycopy(ids, from, ids, to, length);
+        System.arraycopy(quantities, from, quantities, to, length);
+        System.arraycopy(maxes, from, maxes, to, length);
+        System.arraycopy(types, from, types, to, length);
+        System.arraycopy(nameCodes, from, nameCodes, to, length);
+        System.arraycopy(brandCodes, from, brandCodes, to, length);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        quantities = Arrays.copyOf(quantities, newCapacity);
+        maxes = Arrays.copyOf(maxes, newCapacity);
+        types = Arrays.copyOf(types, newCapacity);
+        nameCodes = Arrays.copyOf(nameCodes, newCapacity);
+        brandCodes = Arrays.copyOf(brandCodes, newCapacity);
+    }
+
+    private void clear() {
+        ids = new long[INITIAL_CAPACITY];
+        quantities = new int[INITIAL_CAPACITY];
+        maxes = new int[INITIAL_CAPACITY];
+        types = new byte[INITIAL_CAPACITY];
+        nameCodes = new int[INITIAL_CAPACITY];
+        brandCodes = new int[INITIAL_CAPACITY];
+        names = new StringDictionary();
+        brands = new StringDictionary();
+        size = 0;
+    }
+
+    private void sortById(int low, int high) {
+        while (low < high) {
+            long pivot = ids[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (ids[i] < pivot) {
+                    i++;
+                }
+                while (ids[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            // Recurse into the smaller side so the stack stays logarithmic.
+            if (j - low < high - i) {
+                sortById(low, j);
+                low = i;
+            } else {
+                sortById(i, high);
+                high = j;
+            }
+        }
+    }
+
+    private void swap(int first, int second) {
+        long id = ids[first];
+        ids[first] = ids[second];
+        ids[second] = id;
+        int quantity = quantities[first];
+        quantities[first] = quantities[second];
+        quantities[second] = quantity;
+        int max = maxes[first];
+        maxes[first] = maxes[second];
+        maxes[second] = max;
+        byte type = types[first];
+        types[first] = types[second];
+        types[second] = type;
+        int nameCode = nameCodes[first];
+        nameCodes[first] = nameCodes[second];
+        nameCodes[second] = nameCode;
+        int brandCode = brandCodes[first];
+        brandCodes[first] = brandCodes[second];
+        brandCodes[second] = brandCode;
+    }
+
+    private void write(Runnable update) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            update.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    /**
+     * Column values of the rows matched by a scan, copied out of the store so the DTOs can be built without
+     * holding the read lock.
+     */
+    private static class ScannedRows {
+
+        private final long[] ids;
+        private final String[] names;
+        private final String[] brands;
+        private final int[] maxes;
+        private final int[] quantities;
+        private final byte[] types;
+        private int count;
+
+        ScannedRows(int capacity) {
+            ids = new long[capacity];
+            names = new String[capacity];
+            brands = new String[capacity];
+            maxes = new int[capacity];
+            quantities = new int[capacity];
+            types = new byte[capacity];
+        }
+
+        boolean isFull() {
+            return count == ids.length;
+        }
+
+        void add(long id, String name, String brand, int max, int quantity, byte type) {
+            ids[count] = id;
+            names[count] = name;
+            brands[count] = brand;
+            maxes[count] = max;
+            quantities[count] = quantity;
+            types[count] = type;
+            count++;
+        }
+
+        List<BeerDTO> toDTOs() {
+            List<BeerDTO> beers = new ArrayList<>(count);
+            for (int row = 0; row < count; row++) {
+                beers.add(new BeerDTO(ids[row], names[row], brands[row], maxes[row], quantities[row],
+                        TYPES[types[row]]));
+            }
+            return beers;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.lucas.beerstock.columnar;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns each distinct string a dense int code. Codes are never reused, so values of deleted beers
+ * stay in the dictionary until the store is reloaded.
+ */
+class StringDictionary {
+
+    static final int MISSING = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private String[] values = new String[16];
+
+    int encode(String value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        int newCode = codes.size();
+        if (newCode == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[newCode] = value;
+        codes.put(value, newCode);
+        return newCode;
+    }
+
+    int codeOf(String value) {
+        return codes.getOrDefault(value, MISSING);
+    }
+
+    String decode(int code) {
+        return values[code];
+    }
+
+    int size() {
+        return codes.size();
+    }
+}
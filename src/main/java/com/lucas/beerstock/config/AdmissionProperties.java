@@ -0,0 +1,53 @@
+package com.lucas.beerstock.config;
+
+import com.lucas.beerstock.admission.RequestClass;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beerstock.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    private int initialLimit = 50;
+
+    private int minLimit = 5;
+
+    private int maxLimit = 500;
+
+    private double smoothing = 0.2;
+
+    /**
+     * Fraction of the concurrency limit that lists and writes may use; reads may use all of it.
+     */
+    private double lowPriorityShare = 0.7;
+
+    private long retryAfterSeconds = 1;
+
+    private int maxTrackedClients = 10_000;
+
+    private Bucket client = new Bucket(200, 100);
+
+    private Map<RequestClass, Bucket> endpoints = new EnumMap<>(Map.of(
+            RequestClass.READ, new Bucket(5_000, 2_500),
+            RequestClass.LIST, new Bucket(200, 100),
+            RequestClass.WRITE, new Bucket(2_000, 1_000)));
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+
+        private long capacity;
+
+        private long refillPerSecond;
+    }
+}
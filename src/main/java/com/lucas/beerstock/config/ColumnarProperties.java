@@ -0,0 +1,15 @@
+package com.lucas.beerstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beerstock.columnar")
+public class ColumnarProperties {
+
+    private boolean enabled = true;
+
+    private int loadChunkSize = 1_000;
+}
@@ -0,0 +1,19 @@
+package com.lucas.beerstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beerstock.grpc")
+public class GrpcProperties {
+
+    private boolean enabled = true;
+
+    private int port = 9090;
+
+    private int batchSize = 64;
+
+    private long batchDelayMillis = 5;
+}
@@ -0,0 +1,26 @@
+package com.lucas.beerstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beerstock.journal")
+public class JournalProperties {
+
+    private boolean enabled = false;
+
+    private String path = "data/stock.journal";
+
+    private int capacityBytes = 64 * 1024 * 1024;
+
+    private int groupCommitMaxBatch = 512;
+
+    private int applyBatchSize = 1024;
+
+    /**
+     * How long an increment waits to become durable before the caller is told the journal is unavailable.
+     */
+    private long appendTimeoutMillis = 5_000;
+}
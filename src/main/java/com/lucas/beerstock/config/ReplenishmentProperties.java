@@ -0,0 +1,17 @@
+package com.lucas.beerstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beerstock.replenishment")
+public class ReplenishmentProperties {
+
+    private int chunkSize = 1_000;
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    private int retainedPlans = 10;
+}
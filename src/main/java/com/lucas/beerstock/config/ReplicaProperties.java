@@ -0,0 +1,33 @@
+package com.lucas.beerstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beerstock.datasource")
+public class ReplicaProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * How long after one of its own committed writes a client's read-only transactions keep going to the
+     * primary; 0 disables it. The window is tracked per client through a cookie, so other clients keep
+     * reading from the replicas and may briefly see data that lags behind the primary.
+     */
+    private long readYourWritesMillis = 1_000;
+
+    @Data
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+    }
+}
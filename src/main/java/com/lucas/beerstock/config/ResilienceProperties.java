@@ -0,0 +1,30 @@
+package com.lucas.beerstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beerstock.resilience")
+public class ResilienceProperties {
+
+    /**
+     * Reads beyond this many in flight are rejected; keep it at or above the number of request threads.
+     */
+    private int maxConcurrentReads = 500;
+
+    private int maxConcurrentWrites = 16;
+
+    private int slidingWindowSize = 20;
+
+    private int minimumCalls = 10;
+
+    private int failureRateThresholdPercent = 50;
+
+    private long openDurationMillis = 10_000;
+
+    private int halfOpenTrialCalls = 3;
+
+    private int lastKnownGoodMaxEntries = 10_000;
+}
@@ -0,0 +1,61 @@
+package com.lucas.beerstock.config;
+
+import com.lucas.beerstock.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty(name = "beerstock.sharding.shards[0].url")
+@Conditional(SingleRoutingDataSourceCondition.class)
+public class ShardingConfig {
+
+    // Shard k hands out ids k + 1, k + 1 + n, k + 1 + 2n, ... so ids are unique and encode their shard.
+    private static final String CREATE_BEER_TABLE = "CREATE TABLE IF NOT EXISTS beer ("
+            + "id BIGINT AUTO_INCREMENT(%d, %d) PRIMARY KEY, "
+            + "brand VARCHAR(255) NOT NULL, "
+            + "max INTEGER NOT NULL, "
+            + "name VARCHAR(255) NOT NULL, "
+            + "quantity INTEGER NOT NULL, "
+            + "type VARCHAR(255) NOT NULL, "
+            + "CONSTRAINT uk_beer_name UNIQUE (name))";
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardingProperties shardingProperties) {
+        List<ShardingProperties.Shard> shardProperties = shardingProperties.getShards();
+        List<DataSource> shards = new ArrayList<>(shardProperties.size());
+        for (int i = 0; i < shardProperties.size(); i++) {
+            ShardingProperties.Shard shard = shardProperties.get(i);
+            DataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .build();
+            new JdbcTemplate(dataSource).execute(String.format(CREATE_BEER_TABLE, i + 1, shardProperties.size()));
+            shards.add(dataSource);
+        }
+
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource(shards);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardSchemaCustomizer() {
+        // The shard schema is created above; Hibernate would only see (and recreate) the first shard.
+        return hibernateProperties -> hibernateProperties.put("hibernate.hbm2ddl.auto", "none");
+    }
+}
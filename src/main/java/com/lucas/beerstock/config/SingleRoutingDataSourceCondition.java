@@ -0,0 +1,27 @@
+package com.lucas.beerstock.config;
+
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+/**
+ * Fails startup when both shards and read replicas are configured. {@link ShardingConfig} and
+ * {@link DataSourceRoutingConfig} each replace the primary {@code dataSource}, and replicas per shard are not
+ * supported, so without this check the context would fail on a duplicate bean definition instead.
+ */
+class SingleRoutingDataSourceCondition implements Condition {
+
+    private static final String SHARDS_PROPERTY = "beerstock.sharding.shards[0].url";
+    private static final String REPLICAS_PROPERTY = "beerstock.datasource.replicas[0].url";
+
+    @Override
+    public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        Environment environment = context.getEnvironment();
+        if (environment.containsProperty(SHARDS_PROPERTY) && environment.containsProperty(REPLICAS_PROPERTY)) {
+            throw new IllegalStateException("beerstock.sharding.shards and beerstock.datasource.replicas cannot "
+                    + "both be set: read replicas are not supported for a sharded catalogue");
+        }
+        return true;
+    }
+}
@@ -0,0 +1,19 @@
+package com.lucas.beerstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beerstock.snapshot")
+public class SnapshotProperties {
+
+    private boolean enabled = false;
+
+    private String path = "data/beers.snapshot";
+
+    private long intervalMillis = 60_000;
+
+    private int loadBatchSize = 1_000;
+}
@@ -0,0 +1,16 @@
+package com.lucas.beerstock.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lucas.beerstock.tracing.TracingJackson2HttpMessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new TracingJackson2HttpMessageConverter(objectMapper);
+    }
+}
@@ -0,0 +1,15 @@
+package com.lucas.beerstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beerstock.tracing")
+public class TracingProperties {
+
+    private long slowRequestThresholdMillis = 500;
+
+    private int slowRequestBufferSize = 100;
+}
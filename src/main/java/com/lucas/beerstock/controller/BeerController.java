@@ -1,14 +1,21 @@
 package com.lucas.beerstock.controller;
 
 import com.lucas.beerstock.dto.BeerDTO;
+import com.lucas.beerstock.dto.BeerLookupDTO;
+import com.lucas.beerstock.dto.BeerLookupResultDTO;
 import com.lucas.beerstock.dto.QuantityDTO;
 import com.lucas.beerstock.exception.BeerAlreadyRegisteredException;
 import com.lucas.beerstock.exception.BeerNotFoundException;
 import com.lucas.beerstock.exception.BeerStockExceededException;
-import com.lucas.beerstock.service.BeerService;
+import com.lucas.beerstock.exception.DatabaseUnavailableException;
+import com.lucas.beerstock.journal.JournaledStockService;
+import com.lucas.beerstock.resilience.ReadResult;
+import com.lucas.beerstock.service.ResilientBeerService;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -26,33 +33,57 @@ import java.util.List;
 @RequestMapping("/api/v1/beers")
 @AllArgsConstructor(onConstructor = @__(@Autowired))
 public class BeerController implements BeerControllerDocs {
-    private final BeerService beerService;
+    private static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
+    private final ResilientBeerService resilientBeerService;
+    private final JournaledStockService journaledStockService;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public BeerDTO createBeer(@RequestBody @Valid BeerDTO beerDTO) throws BeerAlreadyRegisteredException {
-        return beerService.createBeer(beerDTO);
+    public BeerDTO createBeer(@RequestBody @Valid BeerDTO beerDTO)
+            throws BeerAlreadyRegisteredException, DatabaseUnavailableException {
+        return resilientBeerService.createBeer(beerDTO);
     }
 
     @GetMapping("/{name}")
-    public BeerDTO findByName(@PathVariable String name) throws BeerNotFoundException {
-        return beerService.findByName(name);
+    public ResponseEntity<BeerDTO> findByName(@PathVariable String name)
+            throws BeerNotFoundException, DatabaseUnavailableException {
+        return toResponse(resilientBeerService.findByName(name));
     }
 
     @GetMapping
-    public List<BeerDTO> listBeers() {
-        return beerService.listAll();
+    public ResponseEntity<List<BeerDTO>> listBeers() throws DatabaseUnavailableException {
+        return toResponse(resilientBeerService.listAll());
+    }
+
+    @PostMapping("/lookup")
+    public BeerLookupResultDTO lookup(@RequestBody @Valid BeerLookupDTO beerLookupDTO)
+            throws DatabaseUnavailableException {
+        return resilientBeerService.lookup(beerLookupDTO);
     }
 
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void deleteById(@PathVariable Long id) throws BeerNotFoundException {
-        beerService.deleteById(id);
+    public void deleteById(@PathVariable Long id) throws BeerNotFoundException, DatabaseUnavailableException {
+        resilientBeerService.deleteById(id);
     }
 
     @PatchMapping("/{id}/increment")
     public BeerDTO increment(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO)
-            throws BeerNotFoundException, BeerStockExceededException {
-        return beerService.increment(id, quantityDTO.getQuantity());
+            throws BeerNotFoundException, BeerStockExceededException, DatabaseUnavailableException {
+        if (journaledStockService.isEnabled()) {
+            return journaledStockService.increment(id, quantityDTO.getQuantity());
+        }
+        return resilientBeerService.increment(id, quantityDTO.getQuantity());
+    }
+
+    private <T> ResponseEntity<T> toResponse(ReadResult<T> result) {
+        if (!result.isStale()) {
+            return ResponseEntity.ok(result.getValue());
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.WARNING, STALE_WARNING)
+                .header(HttpHeaders.AGE, String.valueOf(result.ageSeconds()))
+                .body(result.getValue());
     }
 }
\ No newline at end of file
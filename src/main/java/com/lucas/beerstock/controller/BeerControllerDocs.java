@@ -1,12 +1,16 @@
 package com.lucas.beerstock.controller;
 
 import com.lucas.beerstock.dto.BeerDTO;
+import com.lucas.beerstock.dto.BeerLookupDTO;
+import com.lucas.beerstock.dto.BeerLookupResultDTO;
 import com.lucas.beerstock.exception.BeerAlreadyRegisteredException;
 import com.lucas.beerstock.exception.BeerNotFoundException;
+import com.lucas.beerstock.exception.DatabaseUnavailableException;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import java.util.List;
 
@@ -15,27 +19,40 @@ public interface BeerControllerDocs {
     @ApiOperation(value = "Beer creation operation")
     @ApiResponses(value = {
             @ApiResponse(code = 201, message = "Success beer creation"),
-            @ApiResponse(code = 400, message = "Missing required fields or wrong field range value.")
+            @ApiResponse(code = 400, message = "Missing required fields or wrong field range value."),
+            @ApiResponse(code = 503, message = "Database unavailable, the beer was not created.")
     })
-    BeerDTO createBeer(BeerDTO beerDTO) throws BeerAlreadyRegisteredException;
+    BeerDTO createBeer(BeerDTO beerDTO) throws BeerAlreadyRegisteredException, DatabaseUnavailableException;
 
     @ApiOperation(value = "Returns beer found by a given name")
     @ApiResponses(value = {
-            @ApiResponse(code = 200, message = "Success beer found in the system"),
-            @ApiResponse(code = 404, message = "Beer with given name not found.")
+            @ApiResponse(code = 200, message = "Success beer found in the system, with a Warning header when stale"),
+            @ApiResponse(code = 404, message = "Beer with given name not found."),
+            @ApiResponse(code = 503, message = "Database unavailable and no last known copy of the beer.")
     })
-    BeerDTO findByName(@PathVariable String name) throws BeerNotFoundException;
+    ResponseEntity<BeerDTO> findByName(@PathVariable String name)
+            throws BeerNotFoundException, DatabaseUnavailableException;
 
     @ApiOperation(value = "Returns a list of all beers registered in the system")
     @ApiResponses(value = {
-            @ApiResponse(code = 200, message = "List of all beers registered in the system"),
+            @ApiResponse(code = 200, message = "List of all beers in the system, with a Warning header when stale"),
+            @ApiResponse(code = 503, message = "Database unavailable and no last known list of beers.")
     })
-    List<BeerDTO> listBeers();
+    ResponseEntity<List<BeerDTO>> listBeers() throws DatabaseUnavailableException;
+
+    @ApiOperation(value = "Returns the beers found by the given names and ids in a single request")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Beers found, in request order, and the names and ids not found"),
+            @ApiResponse(code = 400, message = "Too many names or ids in a single request."),
+            @ApiResponse(code = 503, message = "Database unavailable.")
+    })
+    BeerLookupResultDTO lookup(BeerLookupDTO beerLookupDTO) throws DatabaseUnavailableException;
 
     @ApiOperation(value = "Delete a beer found by a given valid Id")
     @ApiResponses(value = {
             @ApiResponse(code = 204, message = "Success beer deleted in the system"),
-            @ApiResponse(code = 404, message = "Beer with given id not found.")
+            @ApiResponse(code = 404, message = "Beer with given id not found."),
+            @ApiResponse(code = 503, message = "Database unavailable, the beer was not deleted.")
     })
-    void deleteById(@PathVariable Long id) throws BeerNotFoundException;
+    void deleteById(@PathVariable Long id) throws BeerNotFoundException, DatabaseUnavailableException;
 }
\ No newline at end of file
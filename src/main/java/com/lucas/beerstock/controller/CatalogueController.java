@@ -0,0 +1,44 @@
+package com.lucas.beerstock.controller;
+
+import com.lucas.beerstock.columnar.BeerColumnFilter;
+import com.lucas.beerstock.columnar.BeerColumnStore;
+import com.lucas.beerstock.dto.BeerDTO;
+import com.lucas.beerstock.dto.CatalogueStatsDTO;
+import com.lucas.beerstock.exception.CatalogueUnavailableException;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/catalogue")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class CatalogueController implements CatalogueControllerDocs {
+
+    private static final String DEFAULT_LIMIT = "1000";
+
+    private final BeerColumnStore beerColumnStore;
+
+    @GetMapping("/beers")
+    public List<BeerDTO> findBeers(BeerColumnFilter filter, @RequestParam(defaultValue = DEFAULT_LIMIT) int limit)
+            throws CatalogueUnavailableException {
+        verifyIfLoaded();
+        return beerColumnStore.scan(filter, limit);
+    }
+
+    @GetMapping("/stats")
+    public CatalogueStatsDTO stats(BeerColumnFilter filter) throws CatalogueUnavailableException {
+        verifyIfLoaded();
+        return beerColumnStore.aggregate(filter);
+    }
+
+    private void verifyIfLoaded() throws CatalogueUnavailableException {
+        if (!beerColumnStore.isLoaded()) {
+            throw new CatalogueUnavailableException();
+        }
+    }
+}
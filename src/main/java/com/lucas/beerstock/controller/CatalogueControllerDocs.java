@@ -0,0 +1,29 @@
+package com.lucas.beerstock.controller;
+
+import com.lucas.beerstock.columnar.BeerColumnFilter;
+import com.lucas.beerstock.dto.BeerDTO;
+import com.lucas.beerstock.dto.CatalogueStatsDTO;
+import com.lucas.beerstock.exception.CatalogueUnavailableException;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+
+import java.util.List;
+
+@Api("Scans and aggregates the in-memory catalogue")
+public interface CatalogueControllerDocs {
+    @ApiOperation(value = "Returns beers filtered by type, brand and fill percentage, in id order")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Beers matching the filter, up to the given limit"),
+            @ApiResponse(code = 503, message = "In-memory catalogue disabled or still loading.")
+    })
+    List<BeerDTO> findBeers(BeerColumnFilter filter, int limit) throws CatalogueUnavailableException;
+
+    @ApiOperation(value = "Returns stock totals per beer type for the beers matching the filter")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stock totals of the matching beers"),
+            @ApiResponse(code = 503, message = "In-memory catalogue disabled or still loading.")
+    })
+    CatalogueStatsDTO stats(BeerColumnFilter filter) throws CatalogueUnavailableException;
+}
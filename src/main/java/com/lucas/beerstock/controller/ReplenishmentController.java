@@ -0,0 +1,61 @@
+package com.lucas.beerstock.controller;
+
+import com.lucas.beerstock.dto.ReplenishmentPlanDTO;
+import com.lucas.beerstock.dto.ReplenishmentRequestDTO;
+import com.lucas.beerstock.exception.ReplenishmentPlanNotFoundException;
+import com.lucas.beerstock.exception.ReplenishmentPlanNotReadyException;
+import com.lucas.beerstock.replenishment.ReplenishmentLine;
+import com.lucas.beerstock.replenishment.ReplenishmentPlanner;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/replenishment-plans")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class ReplenishmentController implements ReplenishmentControllerDocs {
+
+    private static final String CSV_CONTENT_TYPE = "text/csv";
+
+    private final ReplenishmentPlanner replenishmentPlanner;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ReplenishmentPlanDTO startPlan(@RequestBody @Valid ReplenishmentRequestDTO replenishmentRequestDTO) {
+        return replenishmentPlanner.start(replenishmentRequestDTO);
+    }
+
+    @GetMapping("/{id}")
+    public ReplenishmentPlanDTO findById(@PathVariable String id) throws ReplenishmentPlanNotFoundException {
+        return replenishmentPlanner.status(id);
+    }
+
+    @GetMapping(value = "/{id}/plan", produces = CSV_CONTENT_TYPE)
+    public void downloadPlan(@PathVariable String id, HttpServletResponse response)
+            throws ReplenishmentPlanNotFoundException, ReplenishmentPlanNotReadyException, IOException {
+        List<ReplenishmentLine> lines = replenishmentPlanner.completedPlan(id);
+        response.setContentType(CSV_CONTENT_TYPE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"replenishment-plan-" + id + ".csv\"");
+        ReplenishmentPlanner.writeCsv(lines, response.getWriter());
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void cancel(@PathVariable String id) throws ReplenishmentPlanNotFoundException {
+        replenishmentPlanner.cancel(id);
+    }
+}
@@ -0,0 +1,47 @@
+package com.lucas.beerstock.controller;
+
+import com.lucas.beerstock.dto.ReplenishmentPlanDTO;
+import com.lucas.beerstock.dto.ReplenishmentRequestDTO;
+import com.lucas.beerstock.exception.ReplenishmentPlanNotFoundException;
+import com.lucas.beerstock.exception.ReplenishmentPlanNotReadyException;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import org.springframework.web.bind.annotation.PathVariable;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+@Api("Plans beer stock replenishment")
+public interface ReplenishmentControllerDocs {
+    @ApiOperation(value = "Starts a replenishment plan over the whole catalogue")
+    @ApiResponses(value = {
+            @ApiResponse(code = 202, message = "Plan started, poll its status for progress"),
+            @ApiResponse(code = 400, message = "Missing budget or wrong target fill value.")
+    })
+    ReplenishmentPlanDTO startPlan(ReplenishmentRequestDTO replenishmentRequestDTO);
+
+    @ApiOperation(value = "Returns the status and progress of a replenishment plan")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Replenishment plan found in the system"),
+            @ApiResponse(code = 404, message = "Replenishment plan with given id not found.")
+    })
+    ReplenishmentPlanDTO findById(@PathVariable String id) throws ReplenishmentPlanNotFoundException;
+
+    @ApiOperation(value = "Downloads a completed replenishment plan as CSV, grouped by brand and type")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Replenishment plan as CSV"),
+            @ApiResponse(code = 404, message = "Replenishment plan with given id not found."),
+            @ApiResponse(code = 409, message = "Replenishment plan is not completed.")
+    })
+    void downloadPlan(@PathVariable String id, HttpServletResponse response)
+            throws ReplenishmentPlanNotFoundException, ReplenishmentPlanNotReadyException, IOException;
+
+    @ApiOperation(value = "Cancels a running replenishment plan or discards a finished one")
+    @ApiResponses(value = {
+            @ApiResponse(code = 204, message = "Replenishment plan cancelled or discarded"),
+            @ApiResponse(code = 404, message = "Replenishment plan with given id not found.")
+    })
+    void cancel(@PathVariable String id) throws ReplenishmentPlanNotFoundException;
+}
@@ -0,0 +1,71 @@
+package com.lucas.beerstock.datasource;
+
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Binds each beer API request to its client for {@link ReadYourWritesTracker}. The time of the client's last
+ * write travels in a cookie that is set when a write commits and expires with the read-your-writes window.
+ */
+@Component
+@ConditionalOnProperty(name = "beerstock.datasource.replicas[0].url")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String LAST_WRITE_COOKIE = "beerstock-last-write";
+
+    private static final String BEER_API_URL_PATH = "/api/v1/beers";
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(BEER_API_URL_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // Writes commit before the response body is written, so the cookie can still be set from afterCommit.
+        ReadYourWritesTracker.Client client = new ReadYourWritesTracker.Client(lastWriteMillis(request),
+                writeMillis -> response.addHeader(HttpHeaders.SET_COOKIE, lastWriteCookie(writeMillis)));
+        try (ThreadLocalScope scope = ReadYourWritesTracker.bind(client)) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private long lastWriteMillis(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, LAST_WRITE_COOKIE);
+        if (cookie == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(cookie.getValue());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private String lastWriteCookie(long writeMillis) {
+        return ResponseCookie.from(LAST_WRITE_COOKIE, String.valueOf(writeMillis))
+                .path(BEER_API_URL_PATH)
+                .maxAge(Duration.ofMillis(readYourWritesTracker.getWindowMillis()).plusSeconds(1))
+                .httpOnly(true)
+                .build()
+                .toString();
+    }
+}
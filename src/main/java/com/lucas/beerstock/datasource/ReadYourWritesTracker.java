@@ -0,0 +1,89 @@
+package com.lucas.beerstock.datasource;
+
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client read-your-writes window. Each request is bound to the client that sent it, carrying the time of
+ * that client's last write (see {@link ReadYourWritesFilter}); only read-only transactions of a client that
+ * wrote within the window go to the primary, every other read keeps using the replicas. Threads that are not
+ * bound to a client, such as gRPC calls and background jobs, always read from the replicas.
+ *
+ * <p>Write times are wall-clock milliseconds because they travel through the client between requests and may
+ * come back to another instance, so the window should comfortably exceed the clock skew between instances.
+ */
+public class ReadYourWritesTracker {
+
+    private static final ThreadLocal<Client> CURRENT_CLIENT = new ThreadLocal<>();
+
+    private final long windowMillis;
+    private final LongSupplier clock;
+
+    public ReadYourWritesTracker(long windowMillis) {
+        this(windowMillis, System::currentTimeMillis);
+    }
+
+    ReadYourWritesTracker(long windowMillis, LongSupplier clock) {
+        this.windowMillis = windowMillis;
+        this.clock = clock;
+    }
+
+    public static Client currentClient() {
+        return CURRENT_CLIENT.get();
+    }
+
+    /**
+     * Binds the current thread to {@code client} until the returned scope is closed.
+     */
+    public static ThreadLocalScope bind(Client client) {
+        return ThreadLocalScope.bind(CURRENT_CLIENT, client);
+    }
+
+    public void recordWrite() {
+        Client client = CURRENT_CLIENT.get();
+        if (client != null) {
+            client.written(clock.getAsLong());
+        }
+    }
+
+    /**
+     * A write reported in the future is treated as outside the window, so a forged or skewed cookie cannot pin
+     * the client to the primary.
+     */
+    public boolean isWithinWriteWindow() {
+        Client client = CURRENT_CLIENT.get();
+        if (client == null || windowMillis <= 0 || client.getLastWriteMillis() <= 0) {
+            return false;
+        }
+        long sinceLastWriteMillis = clock.getAsLong() - client.getLastWriteMillis();
+        return sinceLastWriteMillis >= 0 && sinceLastWriteMillis < windowMillis;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    public static class Client {
+
+        private final LongConsumer onWrite;
+        private volatile long lastWriteMillis;
+
+        /**
+         * @param lastWriteMillis when the client last wrote, as reported by the client, or 0
+         * @param onWrite         told the time of every write committed for this client
+         */
+        public Client(long lastWriteMillis, LongConsumer onWrite) {
+            this.lastWriteMillis = lastWriteMillis;
+            this.onWrite = onWrite;
+        }
+
+        public long getLastWriteMillis() {
+            return lastWriteMillis;
+        }
+
+        private void written(long writeMillis) {
+            lastWriteMillis = writeMillis;
+            onWrite.accept(writeMillis);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.lucas.beerstock.datasource;
+
+/**
+ * Binds a thread-local routing key, such as the current shard or read-your-writes client, until the scope is
+ * closed, then restores whatever the thread was bound to before.
+ */
+public interface ThreadLocalScope extends AutoCloseable {
+
+    static <T> ThreadLocalScope bind(ThreadLocal<T> threadLocal, T value) {
+        T previousValue = threadLocal.get();
+        threadLocal.set(value);
+        return () -> {
+            if (previousValue == null) {
+                threadLocal.remove();
+            } else {
+                threadLocal.set(previousValue);
+            }
+        };
+    }
+
+    @Override
+    void close();
+}
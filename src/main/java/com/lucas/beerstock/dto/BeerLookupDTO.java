@@ -0,0 +1,26 @@
+package com.lucas.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerLookupDTO {
+
+    @Builder.Default
+    @Size(max = 1000)
+    private List<@NotNull String> names = new ArrayList<>();
+
+    @Builder.Default
+    @Size(max = 1000)
+    private List<@NotNull Long> ids = new ArrayList<>();
+}
@@ -0,0 +1,25 @@
+package com.lucas.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerLookupResultDTO {
+
+    @Builder.Default
+    private List<BeerDTO> found = new ArrayList<>();
+
+    @Builder.Default
+    private List<String> missingNames = new ArrayList<>();
+
+    @Builder.Default
+    private List<Long> missingIds = new ArrayList<>();
+}
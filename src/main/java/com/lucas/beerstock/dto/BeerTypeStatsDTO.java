@@ -0,0 +1,22 @@
+package com.lucas.beerstock.dto;
+
+import com.lucas.beerstock.enums.BeerType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerTypeStatsDTO {
+
+    private BeerType type;
+
+    private long beers;
+
+    private long totalQuantity;
+
+    private long totalCapacity;
+}
@@ -0,0 +1,25 @@
+package com.lucas.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogueStatsDTO {
+
+    private long beers;
+
+    private long totalQuantity;
+
+    private long totalCapacity;
+
+    private double fillPercent;
+
+    private List<BeerTypeStatsDTO> byType;
+}
@@ -0,0 +1,36 @@
+package com.lucas.beerstock.dto;
+
+import com.lucas.beerstock.replenishment.PlanStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplenishmentPlanDTO {
+
+    private String id;
+
+    private PlanStatus status;
+
+    private long budget;
+
+    private int targetFillPercent;
+
+    private long totalBeers;
+
+    private long processedBeers;
+
+    private int progressPercent;
+
+    private int plannedBeers;
+
+    private long orderedUnits;
+
+    private long unfundedUnits;
+
+    private String failure;
+}
@@ -0,0 +1,25 @@
+package com.lucas.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplenishmentRequestDTO {
+
+    @NotNull
+    @Min(0)
+    private Long budget;
+
+    @Min(1)
+    @Max(100)
+    private Integer targetFillPercent;
+}
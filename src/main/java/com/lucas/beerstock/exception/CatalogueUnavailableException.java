@@ -0,0 +1,12 @@
+package com.lucas.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class CatalogueUnavailableException extends Exception {
+
+    public CatalogueUnavailableException() {
+        super("The in-memory catalogue is disabled or still loading.");
+    }
+}
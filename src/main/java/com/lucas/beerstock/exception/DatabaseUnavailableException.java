@@ -0,0 +1,16 @@
+package com.lucas.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class DatabaseUnavailableException extends Exception {
+
+    public DatabaseUnavailableException() {
+        super("Beer stock database is unavailable, try again later.");
+    }
+
+    public DatabaseUnavailableException(Throwable cause) {
+        super("Beer stock database is unavailable, try again later.", cause);
+    }
+}
@@ -0,0 +1,12 @@
+package com.lucas.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ReplenishmentPlanNotFoundException extends Exception {
+
+    public ReplenishmentPlanNotFoundException(String id) {
+        super(String.format("Replenishment plan with id %s not found in the system.", id));
+    }
+}
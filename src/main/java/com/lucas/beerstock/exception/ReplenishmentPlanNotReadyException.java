@@ -0,0 +1,13 @@
+package com.lucas.beerstock.exception;
+
+import com.lucas.beerstock.replenishment.PlanStatus;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ReplenishmentPlanNotReadyException extends Exception {
+
+    public ReplenishmentPlanNotReadyException(String id, PlanStatus status) {
+        super(String.format("Replenishment plan with id %s is %s and has no plan to download.", id, status));
+    }
+}
@@ -0,0 +1,45 @@
+package com.lucas.beerstock.grpc;
+
+import com.lucas.beerstock.dto.BeerDTO;
+import com.lucas.beerstock.enums.BeerType;
+import com.lucas.beerstock.grpc.proto.Beer;
+
+final class BeerGrpcMapper {
+
+    private BeerGrpcMapper() {
+    }
+
+    static Beer toMessage(BeerDTO beerDTO) {
+        Beer.Builder builder = Beer.newBuilder()
+                .setName(beerDTO.getName())
+                .setBrand(beerDTO.getBrand())
+                .setMax(beerDTO.getMax())
+                .setQuantity(beerDTO.getQuantity())
+                .setType(com.lucas.beerstock.grpc.proto.BeerType.valueOf(beerDTO.getType().name()));
+        if (beerDTO.getId() != null) {
+            builder.setId(beerDTO.getId());
+        }
+        return builder.build();
+    }
+
+    static BeerDTO toDTO(Beer beer) {
+        return BeerDTO.builder()
+                .id(beer.getId() == 0 ? null : beer.getId())
+                .name(beer.getName())
+                .brand(beer.getBrand())
+                .max(beer.getMax())
+                .quantity(beer.getQuantity())
+                .type(toBeerType(beer.getType()))
+                .build();
+    }
+
+    private static BeerType toBeerType(com.lucas.beerstock.grpc.proto.BeerType type) {
+        switch (type) {
+            case BEER_TYPE_UNSPECIFIED:
+            case UNRECOGNIZED:
+                return null;
+            default:
+                return BeerType.valueOf(type.name());
+        }
+    }
+}
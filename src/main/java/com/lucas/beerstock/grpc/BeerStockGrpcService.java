@@ -0,0 +1,399 @@
+package com.lucas.beerstock.grpc;
+
+import com.lucas.beerstock.config.GrpcProperties;
+import com.lucas.beerstock.datasource.ThreadLocalScope;
+import com.lucas.beerstock.dto.BeerDTO;
+import com.lucas.beerstock.dto.QuantityDTO;
+import com.lucas.beerstock.exception.BeerAlreadyRegisteredException;
+import com.lucas.beerstock.exception.BeerNotFoundException;
+import com.lucas.beerstock.exception.BeerStockExceededException;
+import com.lucas.beerstock.grpc.proto.Beer;
+import com.lucas.beerstock.grpc.proto.BeerStockGrpc;
+import com.lucas.beerstock.grpc.proto.DeleteByIdReply;
+import com.lucas.beerstock.grpc.proto.DeleteByIdRequest;
+import com.lucas.beerstock.grpc.proto.FindByNameRequest;
+import com.lucas.beerstock.grpc.proto.IncrementError;
+import com.lucas.beerstock.grpc.proto.IncrementRequest;
+import com.lucas.beerstock.grpc.proto.IncrementResult;
+import com.lucas.beerstock.grpc.proto.ListBeersRequest;
+import com.lucas.beerstock.journal.JournaledStockService;
+import com.lucas.beerstock.service.BeerService;
+import com.lucas.beerstock.sharding.ShardRouter;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+@Component
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class BeerStockGrpcService extends BeerStockGrpc.BeerStockImplBase {
+
+    private final BeerService beerService;
+    private final JournaledStockService journaledStockService;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final GrpcProperties grpcProperties;
+    private final ScheduledExecutorService flushScheduler = Executors.newScheduledThreadPool(
+            Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "grpc-increment-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    @PreDestroy
+    public void shutdown() {
+        flushScheduler.shutdownNow();
+    }
+
+    @Override
+    public void createBeer(Beer request, StreamObserver<Beer> responseObserver) {
+        BeerDTO beerDTO = BeerGrpcMapper.toDTO(request);
+        String violations = violationsOf(beerDTO);
+        if (violations != null) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(violations).asRuntimeException());
+            return;
+        }
+        try {
+            reply(responseObserver, BeerGrpcMapper.toMessage(beerService.createBeer(beerDTO)));
+        } catch (BeerAlreadyRegisteredException e) {
+            responseObserver.onError(Status.ALREADY_EXISTS.withDescription(e.getMessage()).asRuntimeException());
+        }
+    }
+
+    @Override
+    public void findByName(FindByNameRequest request, StreamObserver<Beer> responseObserver) {
+        try {
+            reply(responseObserver, BeerGrpcMapper.toMessage(beerService.findByName(request.getName())));
+        } catch (BeerNotFoundException e) {
+            responseObserver.onError(Status.NOT_FOUND.withDescription(e.getMessage()).asRuntimeException());
+        }
+    }
+
+    @Override
+    public void listBeers(ListBeersRequest request, StreamObserver<Beer> responseObserver) {
+        beerService.listAll().forEach(beerDTO -> responseObserver.onNext(BeerGrpcMapper.toMessage(beerDTO)));
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void deleteById(DeleteByIdRequest request, StreamObserver<DeleteByIdReply> responseObserver) {
+        try {
+            beerService.deleteById(request.getId());
+            reply(responseObserver, DeleteByIdReply.getDefaultInstance());
+        } catch (BeerNotFoundException e) {
+            responseObserver.onError(Status.NOT_FOUND.withDescription(e.getMessage()).asRuntimeException());
+        }
+    }
+
+    @Override
+    public void increment(IncrementRequest request, StreamObserver<Beer> responseObserver) {
+        IncrementResult result = journaledStockService.isEnabled()
+                ? submitJournaled(request).join()
+                : applyIncrement(request);
+        if (result.hasBeer()) {
+            reply(responseObserver, result.getBeer());
+            return;
+        }
+        responseObserver.onError(toStatus(result.getError()).asRuntimeException());
+    }
+
+    @Override
+    public StreamObserver<IncrementRequest> streamIncrements(StreamObserver<IncrementResult> responseObserver) {
+        return new IncrementStream((ServerCallStreamObserver<IncrementResult>) responseObserver);
+    }
+
+    List<IncrementResult> applyBatch(List<IncrementRequest> batch) {
+        if (journaledStockService.isEnabled()) {
+            return applyJournaled(batch);
+        }
+        // One transaction per shard: a transaction is pinned to the connection of the first shard it touches.
+        Map<Integer, List<Integer>> positionsByShard = new LinkedHashMap<>();
+        for (int position = 0; position < batch.size(); position++) {
+            positionsByShard.computeIfAbsent(shardRouter.shardForId(batch.get(position).getId()), shard -> new ArrayList<>())
+                    .add(position);
+        }
+        IncrementResult[] results = new IncrementResult[batch.size()];
+        positionsByShard.forEach((shard, positions) -> {
+            List<IncrementRequest> shardBatch = positions.stream().map(batch::get).collect(Collectors.toList());
+            List<IncrementResult> shardResults = applyOnShard(shard, shardBatch);
+            for (int i = 0; i < positions.size(); i++) {
+                results[positions.get(i)] = shardResults.get(i);
+            }
+        });
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Journals the whole batch before waiting, so it shares group commits instead of flushing once per increment.
+     */
+    private List<IncrementResult> applyJournaled(List<IncrementRequest> batch) {
+        List<CompletableFuture<IncrementResult>> results = batch.stream()
+                .map(this::submitJournaled)
+                .collect(Collectors.toList());
+        return results.stream().map(CompletableFuture::join).collect(Collectors.toList());
+    }
+
+    private CompletableFuture<IncrementResult> submitJournaled(IncrementRequest request) {
+        String violations = violationsOf(new QuantityDTO(request.getQuantity()));
+        if (violations != null) {
+            return CompletableFuture.completedFuture(error(request, IncrementError.Code.INVALID_ARGUMENT, violations));
+        }
+        try {
+            return journaledStockService.submitIncrement(request.getId(), request.getQuantity())
+                    .thenApply(incrementedBeer -> incremented(request, incrementedBeer))
+                    .exceptionally(e -> error(request, IncrementError.Code.UNAVAILABLE, e.getMessage()));
+        } catch (BeerNotFoundException e) {
+            return CompletableFuture.completedFuture(error(request, IncrementError.Code.NOT_FOUND, e.getMessage()));
+        } catch (BeerStockExceededException e) {
+            return CompletableFuture.completedFuture(error(request, IncrementError.Code.STOCK_EXCEEDED, e.getMessage()));
+        }
+    }
+
+    private List<IncrementResult> applyOnShard(int shard, List<IncrementRequest> batch) {
+        try (ThreadLocalScope scope = shardRouter.enter(shard)) {
+            return transactionTemplate.execute(status -> batch.stream()
+                    .map(this::applyIncrement)
+                    .collect(Collectors.toList()));
+        } catch (RuntimeException e) {
+            return batch.stream()
+                    .map(request -> error(request, IncrementError.Code.INTERNAL, e.getMessage()))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private IncrementResult applyIncrement(IncrementRequest request) {
+        String violations = violationsOf(new QuantityDTO(request.getQuantity()));
+        if (violations != null) {
+            return error(request, IncrementError.Code.INVALID_ARGUMENT, violations);
+        }
+        try {
+            return incremented(request, beerService.increment(request.getId(), request.getQuantity()));
+        } catch (BeerNotFoundException e) {
+            return error(request, IncrementError.Code.NOT_FOUND, e.getMessage());
+        } catch (BeerStockExceededException e) {
+            return error(request, IncrementError.Code.STOCK_EXCEEDED, e.getMessage());
+        }
+    }
+
+    private IncrementResult incremented(IncrementRequest request, BeerDTO incrementedBeer) {
+        return IncrementResult.newBuilder()
+                .setCorrelationId(request.getCorrelationId())
+                .setBeer(BeerGrpcMapper.toMessage(incrementedBeer))
+                .build();
+    }
+
+    private IncrementResult error(IncrementRequest request, IncrementError.Code code, String message) {
+        return IncrementResult.newBuilder()
+                .setCorrelationId(request.getCorrelationId())
+                .setError(IncrementError.newBuilder()
+                        .setCode(code)
+                        .setMessage(message == null ? "" : message))
+                .build();
+    }
+
+    private Status toStatus(IncrementError error) {
+        switch (error.getCode()) {
+            case INVALID_ARGUMENT:
+                return Status.INVALID_ARGUMENT.withDescription(error.getMessage());
+            case NOT_FOUND:
+                return Status.NOT_FOUND.withDescription(error.getMessage());
+            case STOCK_EXCEEDED:
+                return Status.FAILED_PRECONDITION.withDescription(error.getMessage());
+            case UNAVAILABLE:
+                return Status.UNAVAILABLE.withDescription(error.getMessage());
+            default:
+                return Status.INTERNAL.withDescription(error.getMessage());
+        }
+    }
+
+    private String violationsOf(Object object) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(object);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static <T> void reply(StreamObserver<T> responseObserver, T message) {
+        responseObserver.onNext(message);
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Micro-batches one client's increments. Batches are applied on {@code flushScheduler}, never on the
+     * transport thread, and inbound flow control is manual: a request is only asked for once the result of
+     * an earlier one has been written, so a slow reader stops its writer instead of growing buffers.
+     *
+     * <p>The monitor only guards the batching state; results are emitted by one draining thread at a time
+     * without holding it, because the transport may call back into {@code onNext} while holding its own locks.
+     */
+    private final class IncrementStream implements StreamObserver<IncrementRequest> {
+
+        private final ServerCallStreamObserver<IncrementResult> responseObserver;
+        private final List<IncrementRequest> pending = new ArrayList<>();
+        private final Deque<IncrementResult> outbound = new ArrayDeque<>();
+        private final AtomicInteger drainRequests = new AtomicInteger();
+        private ScheduledFuture<?> scheduledFlush;
+        private boolean flushing;
+        private boolean halfClosed;
+        private boolean closed;
+
+        private IncrementStream(ServerCallStreamObserver<IncrementResult> responseObserver) {
+            this.responseObserver = responseObserver;
+            responseObserver.disableAutoInboundFlowControl();
+            responseObserver.setOnReadyHandler(this::drain);
+            responseObserver.setOnCancelHandler(this::cancel);
+            // Two batches in flight, so the next batch fills up while the previous one is being applied.
+            responseObserver.request(2 * Math.max(1, grpcProperties.getBatchSize()));
+        }
+
+        @Override
+        public synchronized void onNext(IncrementRequest request) {
+            if (closed) {
+                return;
+            }
+            pending.add(request);
+            if (pending.size() >= grpcProperties.getBatchSize()) {
+                startFlush();
+            } else if (scheduledFlush == null && !flushing) {
+                scheduledFlush = flushScheduler.schedule(this::onFlushDelay,
+                        grpcProperties.getBatchDelayMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        @Override
+        public synchronized void onError(Throwable throwable) {
+            cancel();
+        }
+
+        @Override
+        public void onCompleted() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                halfClosed = true;
+                startFlush();
+            }
+            drain();
+        }
+
+        private synchronized void cancel() {
+            closed = true;
+            cancelScheduledFlush();
+            pending.clear();
+            outbound.clear();
+        }
+
+        private synchronized void onFlushDelay() {
+            scheduledFlush = null;
+            startFlush();
+        }
+
+        private void startFlush() {
+            cancelScheduledFlush();
+            if (closed || flushing || pending.isEmpty()) {
+                return;
+            }
+            List<IncrementRequest> batch = new ArrayList<>(pending);
+            pending.clear();
+            flushing = true;
+            flushScheduler.execute(() -> applyAndEmit(batch));
+        }
+
+        private void applyAndEmit(List<IncrementRequest> batch) {
+            List<IncrementResult> results = applyBatch(batch);
+            synchronized (this) {
+                flushing = false;
+                if (closed) {
+                    return;
+                }
+                outbound.addAll(results);
+                if (pending.size() >= grpcProperties.getBatchSize() || (halfClosed && !pending.isEmpty())) {
+                    startFlush();
+                } else if (!pending.isEmpty() && scheduledFlush == null) {
+                    scheduledFlush = flushScheduler.schedule(this::onFlushDelay,
+                            grpcProperties.getBatchDelayMillis(), TimeUnit.MILLISECONDS);
+                }
+            }
+            drain();
+        }
+
+        /**
+         * Emits queued results. A call that finds another thread draining leaves it to loop once more.
+         */
+        private void drain() {
+            if (drainRequests.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                emit();
+                missed = drainRequests.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void emit() {
+            int sent = 0;
+            while (responseObserver.isReady()) {
+                IncrementResult result;
+                synchronized (this) {
+                    result = closed ? null : outbound.poll();
+                }
+                if (result == null) {
+                    break;
+                }
+                responseObserver.onNext(result);
+                sent++;
+            }
+            boolean complete;
+            boolean requestMore;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                complete = halfClosed && outbound.isEmpty() && pending.isEmpty() && !flushing;
+                requestMore = !halfClosed && sent > 0;
+                closed = complete;
+            }
+            if (complete) {
+                responseObserver.onCompleted();
+            } else if (requestMore) {
+                responseObserver.request(sent);
+            }
+        }
+
+        private void cancelScheduledFlush() {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+        }
+    }
+}
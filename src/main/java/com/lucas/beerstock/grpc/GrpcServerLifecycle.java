@@ -0,0 +1,61 @@
+package com.lucas.beerstock.grpc;
+
+import com.lucas.beerstock.config.GrpcProperties;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "beerstock.grpc", name = "enabled", matchIfMissing = true)
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class GrpcServerLifecycle implements SmartLifecycle {
+
+    private final BeerStockGrpcService beerStockGrpcService;
+    private final GrpcProperties grpcProperties;
+    private Server server;
+
+    @Override
+    public synchronized void start() {
+        try {
+            server = NettyServerBuilder.forPort(grpcProperties.getPort())
+                    .addService(beerStockGrpcService)
+                    .build()
+                    .start();
+            log.info("gRPC server started on port {}", server.getPort());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start gRPC server", e);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.shutdown();
+        try {
+            if (!server.awaitTermination(5, TimeUnit.SECONDS)) {
+                server.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            server.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return server != null;
+    }
+}
@@ -0,0 +1,13 @@
+package com.lucas.beerstock.journal;
+
+import lombok.Value;
+
+@Value
+public class JournalRecord {
+
+    long sequence;
+
+    long beerId;
+
+    int quantity;
+}
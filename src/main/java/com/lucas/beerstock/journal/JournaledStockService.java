@@ -0,0 +1,445 @@
+package com.lucas.beerstock.journal;
+
+import com.lucas.beerstock.columnar.BeerColumnStore;
+import com.lucas.beerstock.config.JournalProperties;
+import com.lucas.beerstock.datasource.ThreadLocalScope;
+import com.lucas.beerstock.dto.BeerDTO;
+import com.lucas.beerstock.entity.Beer;
+import com.lucas.beerstock.exception.BeerNotFoundException;
+import com.lucas.beerstock.exception.BeerStockExceededException;
+import com.lucas.beerstock.exception.DatabaseUnavailableException;
+import com.lucas.beerstock.mapper.BeerMapper;
+import com.lucas.beerstock.repository.BeerRepository;
+import com.lucas.beerstock.sharding.ShardRouter;
+import com.lucas.beerstock.snapshot.BeerSnapshotService;
+import com.lucas.beerstock.snapshot.JournalCheckpoint;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Optional write path for stock increments: each increment is validated against the projected stock,
+ * appended to the {@link StockJournal} and acknowledged once the group commit holding it is on disk.
+ * A background thread applies journaled increments to the database in batches. The database is rebuilt
+ * from the catalogue snapshot on startup, so records stay in the journal until a snapshot contains them
+ * and only the records written after the loaded snapshot are replayed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class JournaledStockService implements JournalCheckpoint {
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+    private static final long APPLY_RETRY_DELAY_MILLIS = 1000;
+
+    private final BeerRepository beerRepository;
+    private final ShardRouter shardRouter;
+    private final BeerColumnStore beerColumnStore;
+    private final BeerSnapshotService beerSnapshotService;
+    private final TransactionTemplate transactionTemplate;
+    private final JournalProperties journalProperties;
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+    private final BlockingQueue<PendingAppend> appendQueue = new LinkedBlockingQueue<>();
+    private final BlockingQueue<JournalRecord> applyQueue = new LinkedBlockingQueue<>();
+    private final Map<Long, PendingStock> pendingStock = new HashMap<>();
+    private final Map<Long, Integer> loadingStock = new HashMap<>();
+    private final Object applyLock = new Object();
+    private volatile StockJournal journal;
+    private volatile long appliedSequence;
+    private boolean partiallyApplied;
+    private Thread writer;
+    private Thread applier;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!journalProperties.isEnabled()) {
+            return;
+        }
+        if (!beerSnapshotService.isEnabled()) {
+            throw new IllegalStateException("The stock journal needs catalogue snapshots to be enabled");
+        }
+        journal = StockJournal.open(Paths.get(journalProperties.getPath()), journalProperties.getCapacityBytes());
+        if (journalProperties.getGroupCommitMaxBatch() > journal.maxRecords()) {
+            throw new IllegalStateException("Stock journal cannot hold a full group commit batch");
+        }
+        long snapshotSequence = beerSnapshotService.getJournalSequence();
+        if (snapshotSequence < journal.getBaseSequence() - 1) {
+            log.warn("Snapshot contains stock journal records up to {} but the journal starts at {}",
+                    snapshotSequence, journal.getBaseSequence());
+        }
+        appliedSequence = snapshotSequence;
+        List<JournalRecord> records = journal.recordsAfter(snapshotSequence);
+        if (!records.isEmpty()) {
+            log.info("Replaying {} stock journal records written after snapshot position {}",
+                    records.size(), snapshotSequence);
+            apply(records, new HashSet<>());
+        }
+        journal.markCovered(snapshotSequence);
+        journal.rewindIfFullyCovered();
+        beerSnapshotService.registerJournalCheckpoint(this);
+
+        running = true;
+        writer = new Thread(this::writeLoop, "stock-journal-writer");
+        applier = new Thread(this::applyLoop, "stock-journal-applier");
+        writer.start();
+        applier.start();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        if (journal == null) {
+            return;
+        }
+        synchronized (pendingStock) {
+            // Submits check this under the same lock, so nothing is queued once the writer starts draining.
+            running = false;
+        }
+        writer.join();
+        applier.join();
+        synchronized (applyLock) {
+            // A partially applied batch cannot be described by a journal position; keep refusing snapshots.
+            if (!partiallyApplied) {
+                beerSnapshotService.unregisterJournalCheckpoint(appliedSequence);
+            }
+        }
+        PendingAppend pendingAppend;
+        while ((pendingAppend = appendQueue.poll()) != null) {
+            pendingAppend.getDurable().completeExceptionally(new IllegalStateException("Stock journal is closed"));
+        }
+        journal.close();
+        journal = null;
+    }
+
+    public boolean isEnabled() {
+        return running;
+    }
+
+    public BeerDTO increment(Long id, int quantityToIncrement)
+            throws BeerNotFoundException, BeerStockExceededException, DatabaseUnavailableException {
+        try {
+            return submitIncrement(id, quantityToIncrement).join();
+        } catch (CompletionException e) {
+            throw new DatabaseUnavailableException(e.getCause());
+        }
+    }
+
+    /**
+     * Validates the increment against the projected stock and queues it for the next group commit. The returned
+     * future completes with the projected beer once the increment is durable, so callers with many increments can
+     * submit them all before waiting and share a group commit. It fails if the journal is closed, or with a
+     * {@link java.util.concurrent.TimeoutException} if the increment is not durable within the append timeout;
+     * a timed out increment may still be journaled and applied later.
+     */
+    public CompletableFuture<BeerDTO> submitIncrement(Long id, int quantityToIncrement)
+            throws BeerNotFoundException, BeerStockExceededException {
+        PendingAppend pendingAppend = new PendingAppend(new StockMutation(id, quantityToIncrement));
+        BeerDTO projectedBeer;
+        while (true) {
+            boolean loading;
+            synchronized (pendingStock) {
+                loading = !pendingStock.containsKey(id);
+                if (loading) {
+                    loadingStock.merge(id, 1, Integer::sum);
+                }
+            }
+            // The database read happens outside the lock. While an id is being loaded its projection is kept
+            // even after all of its records are applied, so an apply that finishes during the read is not missed.
+            Optional<Beer> loadedBeer = loading ? findBeer(id) : Optional.empty();
+            synchronized (pendingStock) {
+                if (loading) {
+                    loadingStock.computeIfPresent(id, (key, loaders) -> loaders == 1 ? null : loaders - 1);
+                }
+                PendingStock stock = pendingStock.get(id);
+                if (!running) {
+                    if (stock != null) {
+                        removeIfIdle(id, stock);
+                    }
+                    return CompletableFuture.failedFuture(new IllegalStateException("Stock journal is closed"));
+                }
+                if (stock == null) {
+                    if (!loading) {
+                        // Its records were applied after we looked; read the beer again.
+                        continue;
+                    }
+                    stock = new PendingStock(beerMapper.toDTO(loadedBeer.orElseThrow(() -> new BeerNotFoundException(id))));
+                    pendingStock.put(id, stock);
+                }
+                int quantityAfterIncrement = stock.getBeer().getQuantity() + quantityToIncrement;
+                if (quantityAfterIncrement > stock.getBeer().getMax()) {
+                    removeIfIdle(id, stock);
+                    throw new BeerStockExceededException(id, quantityToIncrement);
+                }
+                stock.getBeer().setQuantity(quantityAfterIncrement);
+                stock.unappliedRecords++;
+                projectedBeer = copyOf(stock.getBeer());
+                appendQueue.add(pendingAppend);
+                break;
+            }
+        }
+
+        return pendingAppend.getDurable()
+                .whenComplete((ignored, failure) -> {
+                    if (failure != null) {
+                        synchronized (pendingStock) {
+                            PendingStock stock = pendingStock.get(id);
+                            stock.getBeer().setQuantity(stock.getBeer().getQuantity() - quantityToIncrement);
+                            releaseRecord(id, stock);
+                        }
+                    }
+                })
+                .thenApply(ignored -> projectedBeer)
+                .orTimeout(journalProperties.getAppendTimeoutMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void writeLoop() {
+        List<PendingAppend> batch = new ArrayList<>();
+        while (running || !appendQueue.isEmpty()) {
+            try {
+                PendingAppend first = appendQueue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                appendQueue.drainTo(batch, journalProperties.getGroupCommitMaxBatch() - 1);
+                awaitRoomFor(batch.size());
+                List<JournalRecord> records = journal.append(batch.stream()
+                        .map(PendingAppend::getMutation)
+                        .collect(Collectors.toList()));
+                applyQueue.addAll(records);
+                batch.forEach(pendingAppend -> pendingAppend.getDurable().complete(null));
+            } catch (InterruptedException e) {
+                batch.forEach(pendingAppend -> pendingAppend.getDurable().completeExceptionally(e));
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Stock journal group commit failed", e);
+                batch.forEach(pendingAppend -> pendingAppend.getDurable().completeExceptionally(e));
+            } catch (Error e) {
+                synchronized (pendingStock) {
+                    running = false;
+                }
+                batch.forEach(pendingAppend -> pendingAppend.getDurable().completeExceptionally(e));
+                PendingAppend pendingAppend;
+                while ((pendingAppend = appendQueue.poll()) != null) {
+                    pendingAppend.getDurable().completeExceptionally(e);
+                }
+                throw e;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Waits for the journal to be applied and covered by a snapshot so it can be rewound, failing the batch
+     * instead of waiting forever when the database or the snapshot cannot keep up.
+     */
+    private void awaitRoomFor(int records) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(journalProperties.getAppendTimeoutMillis());
+        while (!journal.hasRoomFor(records) && !journal.rewindIfFullyCovered()) {
+            if (appliedSequence < journal.getLastSequence()) {
+                if (System.nanoTime() - deadline > 0) {
+                    throw new IllegalStateException("Stock journal is full and its records are not being applied");
+                }
+                Thread.sleep(1);
+                continue;
+            }
+            // Everything is applied but no snapshot contains it yet; take one so the journal can be rewound.
+            beerSnapshotService.snapshot();
+            if (journal.getCoveredSequence() < journal.getLastSequence()) {
+                throw new IllegalStateException("Stock journal is full and no snapshot could be written to free it");
+            }
+        }
+    }
+
+    private void applyLoop() {
+        List<JournalRecord> batch = new ArrayList<>();
+        Set<Integer> appliedShards = new HashSet<>();
+        while (running || !applyQueue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    JournalRecord first = applyQueue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    applyQueue.drainTo(batch, journalProperties.getApplyBatchSize() - 1);
+                }
+                apply(batch, appliedShards);
+                batch.clear();
+                appliedShards.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // The batch stays in the journal; keep retrying it so records are applied in order.
+                log.error("Could not apply {} stock journal records, retrying", batch.size(), e);
+                if (!running) {
+                    return;
+                }
+                sleepQuietly(APPLY_RETRY_DELAY_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Applies the records with one transaction per shard. Shards in {@code appliedShards} are skipped and
+     * successfully applied shards are added to it, so retrying a partially applied batch is safe.
+     */
+    void apply(List<JournalRecord> records, Set<Integer> appliedShards) {
+        Map<Integer, Map<Long, Integer>> quantitiesByShard = new LinkedHashMap<>();
+        records.forEach(record -> quantitiesByShard
+                .computeIfAbsent(shardRouter.shardForId(record.getBeerId()), shard -> new LinkedHashMap<>())
+                .merge(record.getBeerId(), record.getQuantity(), Integer::sum));
+        synchronized (applyLock) {
+            partiallyApplied = !appliedShards.isEmpty();
+            quantitiesByShard.forEach((shard, quantitiesByBeer) -> {
+                if (appliedShards.contains(shard)) {
+                    return;
+                }
+                try (ThreadLocalScope scope = shardRouter.enter(shard)) {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        // Locked, since increments outside the journal update the same rows concurrently.
+                        List<Beer> beers = beerRepository.findAllForUpdateByIdIn(quantitiesByBeer.keySet());
+                        beers.forEach(beer -> {
+                            int increment = incrementWithinMax(beer, quantitiesByBeer.get(beer.getId()));
+                            beer.setQuantity(beer.getQuantity() + increment);
+                            quantitiesByBeer.put(beer.getId(), increment);
+                        });
+                        beerRepository.saveAll(beers);
+                        beers.forEach(beer -> beerColumnStore.adjustQuantity(beer.getId(), quantitiesByBeer.get(beer.getId())));
+                    });
+                }
+                appliedShards.add(shard);
+                partiallyApplied = true;
+            });
+            appliedSequence = records.get(records.size() - 1).getSequence();
+            partiallyApplied = false;
+        }
+        synchronized (pendingStock) {
+            records.forEach(record -> {
+                PendingStock stock = pendingStock.get(record.getBeerId());
+                if (stock != null) {
+                    releaseRecord(record.getBeerId(), stock);
+                }
+            });
+        }
+    }
+
+    @Override
+    public <T> T whileApplyingIsPaused(LongFunction<T> read) {
+        synchronized (applyLock) {
+            if (partiallyApplied) {
+                throw new IllegalStateException("A stock journal batch is only partially applied");
+            }
+            return read.apply(appliedSequence);
+        }
+    }
+
+    @Override
+    public void snapshotWritten(long sequence) {
+        StockJournal currentJournal = journal;
+        if (currentJournal != null) {
+            currentJournal.markCovered(sequence);
+        }
+    }
+
+    /**
+     * Increments were checked against the projected stock when they were journaled, but writes that do not go
+     * through the journal may have raised the stock since, so the max is enforced again when applying.
+     */
+    private int incrementWithinMax(Beer beer, int increment) {
+        int room = Math.max(0, beer.getMax() - beer.getQuantity());
+        if (increment > room) {
+            log.warn("Journaled increment of {} would exceed the max stock of beer {}, applying {}",
+                    increment, beer.getId(), room);
+            return room;
+        }
+        return increment;
+    }
+
+    private Optional<Beer> findBeer(Long id) {
+        try (ThreadLocalScope scope = shardRouter.enter(shardRouter.shardForId(id))) {
+            return beerRepository.findById(id);
+        } catch (RuntimeException e) {
+            synchronized (pendingStock) {
+                loadingStock.computeIfPresent(id, (key, loaders) -> loaders == 1 ? null : loaders - 1);
+                PendingStock stock = pendingStock.get(id);
+                if (stock != null) {
+                    removeIfIdle(id, stock);
+                }
+            }
+            throw e;
+        }
+    }
+
+    private void releaseRecord(Long id, PendingStock stock) {
+        stock.unappliedRecords--;
+        removeIfIdle(id, stock);
+    }
+
+    private void removeIfIdle(Long id, PendingStock stock) {
+        if (stock.unappliedRecords == 0 && !loadingStock.containsKey(id)) {
+            pendingStock.remove(id);
+        }
+    }
+
+    private BeerDTO copyOf(BeerDTO beerDTO) {
+        return new BeerDTO(beerDTO.getId(), beerDTO.getName(), beerDTO.getBrand(), beerDTO.getMax(),
+                beerDTO.getQuantity(), beerDTO.getType());
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Getter
+    private static class PendingAppend {
+
+        private final StockMutation mutation;
+        private final CompletableFuture<Void> durable = new CompletableFuture<>();
+
+        PendingAppend(StockMutation mutation) {
+            this.mutation = mutation;
+        }
+    }
+
+    @Getter
+    private static class PendingStock {
+
+        private final BeerDTO beer;
+        private int unappliedRecords;
+
+        PendingStock(BeerDTO beer) {
+            this.beer = beer;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.lucas.beerstock.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped journal of stock increments.
+ *
+ * <p>The file starts with a header holding the sequence of the first record in the file and the
+ * sequence of the last record contained in a catalogue snapshot, followed by fixed-size, checksummed
+ * records. The database is rebuilt from the snapshot on startup, so records are kept until a snapshot
+ * covers them; once every record is covered the journal is rewound to the start of the file.
+ */
+public class StockJournal implements Closeable {
+
+    static final int MAGIC = 0x4245524A;
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 24;
+
+    private static final int BASE_SEQUENCE_OFFSET = 8;
+    private static final int COVERED_SEQUENCE_OFFSET = 16;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final List<JournalRecord> recoveredRecords = new ArrayList<>();
+    private long baseSequence;
+    private long coveredSequence;
+    private long lastSequence;
+    private int writePosition;
+
+    private StockJournal(FileChannel channel, MappedByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    public static StockJournal open(Path path, int capacityBytes) throws IOException {
+        if (capacityBytes < HEADER_SIZE + RECORD_SIZE) {
+            throw new IllegalArgumentException("Journal capacity too small: " + capacityBytes);
+        }
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        StockJournal journal = new StockJournal(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacityBytes));
+        journal.recover();
+        return journal;
+    }
+
+    /**
+     * Records recovered from the file whose sequence is greater than {@code sequence}.
+     */
+    public synchronized List<JournalRecord> recordsAfter(long sequence) {
+        List<JournalRecord> records = new ArrayList<>();
+        for (JournalRecord record : recoveredRecords) {
+            if (record.getSequence() > sequence) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    public synchronized boolean hasRoomFor(int records) {
+        return writePosition + (long) records * RECORD_SIZE <= buffer.capacity();
+    }
+
+    public synchronized int maxRecords() {
+        return (buffer.capacity() - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    /**
+     * Writes all mutations and forces them to disk with a single flush.
+     */
+    public synchronized List<JournalRecord> append(List<StockMutation> mutations) {
+        if (!hasRoomFor(mutations.size())) {
+            throw new IllegalStateException("Stock journal is full");
+        }
+        int batchStart = writePosition;
+        List<JournalRecord> records = new ArrayList<>(mutations.size());
+        for (StockMutation mutation : mutations) {
+            JournalRecord record = new JournalRecord(++lastSequence, mutation.getBeerId(), mutation.getQuantity());
+            writeRecord(writePosition, record);
+            writePosition += RECORD_SIZE;
+            records.add(record);
+        }
+        clearRecordSlot(writePosition);
+        buffer.force(batchStart, Math.min(writePosition + RECORD_SIZE, buffer.capacity()) - batchStart);
+        return records;
+    }
+
+    /**
+     * Records that a catalogue snapshot contains every record up to {@code sequence}.
+     */
+    public synchronized void markCovered(long sequence) {
+        if (sequence <= coveredSequence) {
+            return;
+        }
+        coveredSequence = sequence;
+        buffer.putLong(COVERED_SEQUENCE_OFFSET, coveredSequence);
+        buffer.force(0, HEADER_SIZE);
+    }
+
+    /**
+     * Rewinds to the start of the file once a snapshot covers every record. New records continue after
+     * the covered sequence, which is ahead of the journal when the snapshot outlived an older journal file.
+     */
+    public synchronized boolean rewindIfFullyCovered() {
+        if (coveredSequence < lastSequence) {
+            return false;
+        }
+        baseSequence = coveredSequence + 1;
+        lastSequence = coveredSequence;
+        writePosition = HEADER_SIZE;
+        recoveredRecords.clear();
+        clearRecordSlot(writePosition);
+        buffer.putLong(BASE_SEQUENCE_OFFSET, baseSequence);
+        buffer.force(0, HEADER_SIZE + RECORD_SIZE);
+        return true;
+    }
+
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    public synchronized long getBaseSequence() {
+        return baseSequence;
+    }
+
+    public synchronized long getCoveredSequence() {
+        return coveredSequence;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private void recover() {
+        if (buffer.getInt(0) != MAGIC) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(BASE_SEQUENCE_OFFSET, 1);
+            buffer.putLong(COVERED_SEQUENCE_OFFSET, 0);
+            clearRecordSlot(HEADER_SIZE);
+            buffer.force();
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Unsupported stock journal version: " + buffer.getInt(4));
+        }
+        baseSequence = buffer.getLong(BASE_SEQUENCE_OFFSET);
+        coveredSequence = buffer.getLong(COVERED_SEQUENCE_OFFSET);
+        lastSequence = baseSequence - 1;
+        writePosition = HEADER_SIZE;
+
+        // Records are written in sequence order, so the first gap or torn record marks the end.
+        while (hasRoomFor(1)) {
+            JournalRecord record = readRecord(writePosition);
+            if (record == null || record.getSequence() != lastSequence + 1) {
+                break;
+            }
+            recoveredRecords.add(record);
+            lastSequence = record.getSequence();
+            writePosition += RECORD_SIZE;
+        }
+    }
+
+    private void writeRecord(int position, JournalRecord record) {
+        buffer.putLong(position, record.getSequence());
+        buffer.putLong(position + 8, record.getBeerId());
+        buffer.putInt(position + 16, record.getQuantity());
+        buffer.putInt(position + 20, checksum(record.getSequence(), record.getBeerId(), record.getQuantity()));
+    }
+
+    private JournalRecord readRecord(int position) {
+        long sequence = buffer.getLong(position);
+        long beerId = buffer.getLong(position + 8);
+        int quantity = buffer.getInt(position + 16);
+        if (sequence == 0 || buffer.getInt(position + 20) != checksum(sequence, beerId, quantity)) {
+            return null;
+        }
+        return new JournalRecord(sequence, beerId, quantity);
+    }
+
+    private void clearRecordSlot(int position) {
+        if (position + RECORD_SIZE <= buffer.capacity()) {
+            buffer.putLong(position, 0);
+        }
+    }
+
+    private static int checksum(long sequence, long beerId, int quantity) {
+        CRC32 crc = new CRC32();
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            crc.update((int) (sequence >>> shift));
+        }
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            crc.update((int) (beerId >>> shift));
+        }
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            crc.update(quantity >>> shift);
+        }
+        return (int) crc.getValue();
+    }
+}
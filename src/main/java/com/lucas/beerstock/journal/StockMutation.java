@@ -0,0 +1,11 @@
+package com.lucas.beerstock.journal;
+
+import lombok.Value;
+
+@Value
+public class StockMutation {
+
+    long beerId;
+
+    int quantity;
+}
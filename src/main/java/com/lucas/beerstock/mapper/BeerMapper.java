@@ -2,10 +2,14 @@ package com.lucas.beerstock.mapper;
 
 import com.lucas.beerstock.dto.BeerDTO;
 import com.lucas.beerstock.entity.Beer;
+import org.mapstruct.DecoratedWith;
 import org.mapstruct.Mapper;
 import org.mapstruct.factory.Mappers;
 
+import java.util.List;
+
 @Mapper
+@DecoratedWith(BeerMapperDecorator.class)
 public interface BeerMapper {
 
     BeerMapper INSTANCE = Mappers.getMapper(BeerMapper.class);
@@ -13,4 +17,6 @@ public interface BeerMapper {
     Beer toModel(BeerDTO beerDTO);
 
     BeerDTO toDTO(Beer beer);
+
+    List<BeerDTO> toDTOs(List<Beer> beers);
 }
@@ -0,0 +1,47 @@
+package com.lucas.beerstock.mapper;
+
+import com.lucas.beerstock.dto.BeerDTO;
+import com.lucas.beerstock.entity.Beer;
+import com.lucas.beerstock.tracing.Stage;
+import com.lucas.beerstock.tracing.StageSpan;
+
+import java.util.List;
+
+/**
+ * Times mapping as a stage. Lists are timed once per call; the rows inside are mapped by the delegate
+ * and not timed one by one.
+ */
+public abstract class BeerMapperDecorator implements BeerMapper {
+
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private final BeerMapper delegate;
+
+    public BeerMapperDecorator(BeerMapper delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Beer toModel(BeerDTO beerDTO) {
+        StageSpan span = StageSpan.start(Stage.MAPPING, "toModel");
+        Beer beer = delegate.toModel(beerDTO);
+        span.end(NO_ARGUMENTS, beer);
+        return beer;
+    }
+
+    @Override
+    public BeerDTO toDTO(Beer beer) {
+        StageSpan span = StageSpan.start(Stage.MAPPING, "toDTO");
+        BeerDTO beerDTO = delegate.toDTO(beer);
+        span.end(NO_ARGUMENTS, beerDTO);
+        return beerDTO;
+    }
+
+    @Override
+    public List<BeerDTO> toDTOs(List<Beer> beers) {
+        StageSpan span = StageSpan.start(Stage.MAPPING, "toDTOs");
+        List<BeerDTO> beerDTOs = delegate.toDTOs(beers);
+        span.end(NO_ARGUMENTS, beerDTOs);
+        return beerDTOs;
+    }
+}
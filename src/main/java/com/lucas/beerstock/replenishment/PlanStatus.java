@@ -0,0 +1,9 @@
+package com.lucas.beerstock.replenishment;
+
+public enum PlanStatus {
+
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED
+}
@@ -0,0 +1,79 @@
+package com.lucas.beerstock.replenishment;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Getter
+public class ReplenishmentJob {
+
+    private final String id;
+    private final long budget;
+    private final int targetFillPercent;
+    private final Instant createdAt = Instant.now();
+    private final AtomicLong processedBeers = new AtomicLong();
+    private volatile long totalBeers;
+    private volatile PlanStatus status = PlanStatus.RUNNING;
+    private volatile List<ReplenishmentLine> lines = Collections.emptyList();
+    private volatile long orderedUnits;
+    private volatile long unfundedUnits;
+    private volatile String failure;
+    private volatile Future<?> future;
+
+    ReplenishmentJob(String id, long budget, int targetFillPercent) {
+        this.id = id;
+        this.budget = budget;
+        this.targetFillPercent = targetFillPercent;
+    }
+
+    public boolean isCancelled() {
+        return status == PlanStatus.CANCELLED;
+    }
+
+    public int getProgressPercent() {
+        if (status == PlanStatus.COMPLETED) {
+            return 100;
+        }
+        long total = totalBeers;
+        return total == 0 ? 0 : (int) Math.min(99, processedBeers.get() * 100 / total);
+    }
+
+    void setTotalBeers(long totalBeers) {
+        this.totalBeers = totalBeers;
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    synchronized void complete(List<ReplenishmentLine> lines, long orderedUnits, long unfundedUnits) {
+        if (status == PlanStatus.RUNNING) {
+            this.lines = lines;
+            this.orderedUnits = orderedUnits;
+            this.unfundedUnits = unfundedUnits;
+            this.status = PlanStatus.COMPLETED;
+        }
+    }
+
+    synchronized void fail(String failure) {
+        if (status == PlanStatus.RUNNING) {
+            this.failure = failure;
+            this.status = PlanStatus.FAILED;
+        }
+    }
+
+    synchronized boolean cancel() {
+        if (status != PlanStatus.RUNNING) {
+            return false;
+        }
+        status = PlanStatus.CANCELLED;
+        if (future != null) {
+            future.cancel(true);
+        }
+        return true;
+    }
+}
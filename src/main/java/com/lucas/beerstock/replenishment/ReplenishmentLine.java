@@ -0,0 +1,26 @@
+package com.lucas.beerstock.replenishment;
+
+import com.lucas.beerstock.enums.BeerType;
+import lombok.Value;
+import lombok.With;
+
+@Value
+public class ReplenishmentLine {
+
+    long beerId;
+
+    String name;
+
+    String brand;
+
+    BeerType type;
+
+    int quantity;
+
+    int max;
+
+    int shortfall;
+
+    @With
+    int orderQuantity;
+}
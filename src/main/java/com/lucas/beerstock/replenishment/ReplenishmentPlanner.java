@@ -0,0 +1,313 @@
+package com.lucas.beerstock.replenishment;
+
+import com.lucas.beerstock.config.ReplenishmentProperties;
+import com.lucas.beerstock.dto.ReplenishmentPlanDTO;
+import com.lucas.beerstock.dto.ReplenishmentRequestDTO;
+import com.lucas.beerstock.entity.Beer;
+import com.lucas.beerstock.exception.ReplenishmentPlanNotFoundException;
+import com.lucas.beerstock.exception.ReplenishmentPlanNotReadyException;
+import com.lucas.beerstock.repository.BeerRepository;
+import com.lucas.beerstock.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Computes reorder suggestions for the whole catalogue in the background.
+ *
+ * <p>Each shard is read in keyset-paged chunks inside short read-only transactions, and every chunk is
+ * evaluated on a dedicated fork-join pool while the next one is being read. Only beers below their
+ * target fill are kept; the budget is then spent on the emptiest beers first and the plan is ordered by
+ * brand and type.
+ */
+@Slf4j
+@Service
+public class ReplenishmentPlanner {
+
+    private static final int DEFAULT_TARGET_FILL_PERCENT = 100;
+    private static final int EVALUATION_THRESHOLD = 256;
+    private static final String CSV_HEADER = "brand,type,beer_id,name,quantity,max,shortfall,order_quantity\n";
+
+    private static final Comparator<ReplenishmentLine> EMPTIEST_FIRST = (first, second) -> {
+        int byFill = Long.compare((long) first.getQuantity() * second.getMax(),
+                (long) second.getQuantity() * first.getMax());
+        return byFill != 0 ? byFill : Long.compare(first.getBeerId(), second.getBeerId());
+    };
+
+    private static final Comparator<ReplenishmentLine> BY_BRAND_AND_TYPE = Comparator
+            .comparing(ReplenishmentLine::getBrand)
+            .thenComparing(ReplenishmentLine::getType)
+            .thenComparingLong(ReplenishmentLine::getBeerId);
+
+    private final BeerRepository beerRepository;
+    private final ShardRouter shardRouter;
+    private final ReplenishmentProperties replenishmentProperties;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ForkJoinPool evaluationPool;
+    private final ExecutorService jobExecutor;
+    private final Map<String, ReplenishmentJob> jobs = new LinkedHashMap<>();
+
+    @Autowired
+    public ReplenishmentPlanner(BeerRepository beerRepository, ShardRouter shardRouter,
+                                TransactionTemplate transactionTemplate, ReplenishmentProperties replenishmentProperties) {
+        this.beerRepository = beerRepository;
+        this.shardRouter = shardRouter;
+        this.replenishmentProperties = replenishmentProperties;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.evaluationPool = new ForkJoinPool(Math.max(1, replenishmentProperties.getParallelism()));
+        this.jobExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replenishment-planner");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        evaluationPool.shutdownNow();
+    }
+
+    public ReplenishmentPlanDTO start(ReplenishmentRequestDTO replenishmentRequestDTO) {
+        int targetFillPercent = Optional.ofNullable(replenishmentRequestDTO.getTargetFillPercent())
+                .orElse(DEFAULT_TARGET_FILL_PERCENT);
+        ReplenishmentJob job = new ReplenishmentJob(UUID.randomUUID().toString(),
+                replenishmentRequestDTO.getBudget(), targetFillPercent);
+        synchronized (jobs) {
+            evictFinishedJobs();
+            jobs.put(job.getId(), job);
+        }
+        synchronized (job) {
+            job.setFuture(jobExecutor.submit(() -> run(job)));
+        }
+        return toDTO(job);
+    }
+
+    public ReplenishmentPlanDTO status(String id) throws ReplenishmentPlanNotFoundException {
+        return toDTO(verifyIfExists(id));
+    }
+
+    /**
+     * Cancels a running plan, or discards a finished one.
+     */
+    public void cancel(String id) throws ReplenishmentPlanNotFoundException {
+        ReplenishmentJob job = verifyIfExists(id);
+        if (!job.cancel()) {
+            synchronized (jobs) {
+                jobs.remove(id);
+            }
+        }
+    }
+
+    public List<ReplenishmentLine> completedPlan(String id)
+            throws ReplenishmentPlanNotFoundException, ReplenishmentPlanNotReadyException {
+        ReplenishmentJob job = verifyIfExists(id);
+        if (job.getStatus() != PlanStatus.COMPLETED) {
+            throw new ReplenishmentPlanNotReadyException(id, job.getStatus());
+        }
+        return job.getLines();
+    }
+
+    public static void writeCsv(List<ReplenishmentLine> lines, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        StringBuilder row = new StringBuilder();
+        for (ReplenishmentLine line : lines) {
+            row.setLength(0);
+            appendCsvField(row, line.getBrand()).append(',')
+                    .append(line.getType()).append(',')
+                    .append(line.getBeerId()).append(',');
+            appendCsvField(row, line.getName()).append(',')
+                    .append(line.getQuantity()).append(',')
+                    .append(line.getMax()).append(',')
+                    .append(line.getShortfall()).append(',')
+                    .append(line.getOrderQuantity()).append('\n');
+            writer.write(row.toString());
+        }
+        writer.flush();
+    }
+
+    private static StringBuilder appendCsvField(StringBuilder row, String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return row.append(value);
+        }
+        return row.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private void run(ReplenishmentJob job) {
+        try {
+            job.setTotalBeers(shardRouter.onAllShards(shard -> readOnlyTransaction.execute(status -> beerRepository.count()))
+                    .stream()
+                    .mapToLong(Long::longValue)
+                    .sum());
+            List<ReplenishmentLine> candidates = new ArrayList<>();
+            for (List<ForkJoinTask<List<ReplenishmentLine>>> shardTasks : shardRouter.onAllShards(shard -> readShard(job))) {
+                for (ForkJoinTask<List<ReplenishmentLine>> task : shardTasks) {
+                    candidates.addAll(task.join());
+                }
+            }
+            if (!job.isCancelled()) {
+                allocate(job, candidates);
+            }
+        } catch (RuntimeException e) {
+            // Cancelling interrupts the planner thread, so whatever it was blocked on may fail afterwards.
+            if (job.isCancelled()) {
+                log.debug("Replenishment plan {} cancelled", job.getId());
+            } else {
+                log.error("Replenishment plan {} failed", job.getId(), e);
+                job.fail(e.getMessage());
+            }
+        }
+    }
+
+    private List<ForkJoinTask<List<ReplenishmentLine>>> readShard(ReplenishmentJob job) {
+        int chunkSize = Math.max(1, replenishmentProperties.getChunkSize());
+        Pageable chunkPage = PageRequest.of(0, chunkSize);
+        // Bounds how many read-but-not-yet-evaluated chunks a slow pool can accumulate.
+        Semaphore chunksInFlight = new Semaphore(2 * evaluationPool.getParallelism());
+        List<ForkJoinTask<List<ReplenishmentLine>>> tasks = new ArrayList<>();
+        long lastId = 0;
+        while (!job.isCancelled()) {
+            long afterId = lastId;
+            List<Beer> chunk = readOnlyTransaction.execute(
+                    status -> beerRepository.findByIdGreaterThanOrderByIdAsc(afterId, chunkPage));
+            if (chunk == null || chunk.isEmpty()) {
+                break;
+            }
+            try {
+                chunksInFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException();
+            }
+            tasks.add(evaluationPool.submit(() -> {
+                try {
+                    return new EvaluateChunk(job, chunk, 0, chunk.size()).invoke();
+                } finally {
+                    chunksInFlight.release();
+                }
+            }));
+            lastId = chunk.get(chunk.size() - 1).getId();
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+        }
+        return tasks;
+    }
+
+    private void allocate(ReplenishmentJob job, List<ReplenishmentLine> candidates) {
+        ReplenishmentLine[] lines = candidates.toArray(new ReplenishmentLine[0]);
+        Arrays.parallelSort(lines, EMPTIEST_FIRST);
+        long remainingBudget = job.getBudget();
+        long totalShortfall = 0;
+        for (int i = 0; i < lines.length; i++) {
+            int orderQuantity = (int) Math.min(lines[i].getShortfall(), remainingBudget);
+            remainingBudget -= orderQuantity;
+            totalShortfall += lines[i].getShortfall();
+            lines[i] = lines[i].withOrderQuantity(orderQuantity);
+        }
+        Arrays.parallelSort(lines, BY_BRAND_AND_TYPE);
+        long orderedUnits = job.getBudget() - remainingBudget;
+        job.complete(Arrays.asList(lines), orderedUnits, totalShortfall - orderedUnits);
+    }
+
+    private void evictFinishedJobs() {
+        Iterator<ReplenishmentJob> iterator = jobs.values().iterator();
+        int excess = jobs.size() - Math.max(0, replenishmentProperties.getRetainedPlans() - 1);
+        while (excess > 0 && iterator.hasNext()) {
+            if (iterator.next().getStatus() != PlanStatus.RUNNING) {
+                iterator.remove();
+                excess--;
+            }
+        }
+    }
+
+    private ReplenishmentJob verifyIfExists(String id) throws ReplenishmentPlanNotFoundException {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(id))
+                    .orElseThrow(() -> new ReplenishmentPlanNotFoundException(id));
+        }
+    }
+
+    private ReplenishmentPlanDTO toDTO(ReplenishmentJob job) {
+        return ReplenishmentPlanDTO.builder()
+                .id(job.getId())
+                .status(job.getStatus())
+                .budget(job.getBudget())
+                .targetFillPercent(job.getTargetFillPercent())
+                .totalBeers(job.getTotalBeers())
+                .processedBeers(job.getProcessedBeers().get())
+                .progressPercent(job.getProgressPercent())
+                .plannedBeers(job.getLines().size())
+                .orderedUnits(job.getOrderedUnits())
+                .unfundedUnits(job.getUnfundedUnits())
+                .failure(job.getFailure())
+                .build();
+    }
+
+    private static class EvaluateChunk extends RecursiveTask<List<ReplenishmentLine>> {
+
+        private final ReplenishmentJob job;
+        private final List<Beer> beers;
+        private final int from;
+        private final int to;
+
+        EvaluateChunk(ReplenishmentJob job, List<Beer> beers, int from, int to) {
+            this.job = job;
+            this.beers = beers;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<ReplenishmentLine> compute() {
+            if (job.isCancelled()) {
+                return new ArrayList<>();
+            }
+            if (to - from > EVALUATION_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                EvaluateChunk left = new EvaluateChunk(job, beers, from, middle);
+                left.fork();
+                List<ReplenishmentLine> lines = new EvaluateChunk(job, beers, middle, to).compute();
+                List<ReplenishmentLine> leftLines = left.join();
+                leftLines.addAll(lines);
+                return leftLines;
+            }
+            List<ReplenishmentLine> lines = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                Beer beer = beers.get(i);
+                int target = (int) (((long) beer.getMax() * job.getTargetFillPercent() + 99) / 100);
+                int shortfall = target - beer.getQuantity();
+                if (shortfall > 0) {
+                    lines.add(new ReplenishmentLine(beer.getId(), beer.getName(), beer.getBrand(), beer.getType(),
+                            beer.getQuantity(), beer.getMax(), shortfall, 0));
+                }
+            }
+            job.getProcessedBeers().addAndGet(to - from);
+            return lines;
+        }
+    }
+}
@@ -1,11 +1,36 @@
 package com.lucas.beerstock.repository;
 
 import com.lucas.beerstock.entity.Beer;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface BeerRepository extends JpaRepository<Beer, Long> {
 
     Optional<Beer> findByName(String name);
+
+    List<Beer> findByNameIn(Collection<String> names);
+
+    List<Beer> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Adds {@code quantity} to the stock in a single statement, so concurrent increments cannot lose updates.
+     *
+     * @return 1 if the stock was incremented, 0 if the beer does not exist or the increment would exceed its max
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Beer b SET b.quantity = b.quantity + :quantity WHERE b.id = :id AND b.quantity + :quantity <= b.max")
+    int incrementQuantity(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Beer b WHERE b.id IN :ids")
+    List<Beer> findAllForUpdateByIdIn(@Param("ids") Collection<Long> ids);
 }
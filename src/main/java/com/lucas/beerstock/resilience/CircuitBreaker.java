@@ -0,0 +1,129 @@
+package com.lucas.beerstock.resilience;
+
+import com.lucas.beerstock.config.ResilienceProperties;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker. It opens when the failure rate over the last {@code slidingWindowSize}
+ * calls reaches the threshold, rejects calls while open, then lets a few trial calls through and closes
+ * again only if all of them succeed.
+ *
+ * <p>Every permitted call must be finished with exactly one of {@link #onSuccess()},
+ * {@link #onFailure()} or {@link #onIgnored()}.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int minimumCalls;
+    private final int failureRateThresholdPercent;
+    private final long openDurationNanos;
+    private final int halfOpenTrialCalls;
+    private final LongSupplier nanoClock;
+    private final boolean[] failedCalls;
+    private int nextCall;
+    private int recordedCalls;
+    private int recordedFailures;
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int trialCallsInFlight;
+    private int successfulTrialCalls;
+
+    public CircuitBreaker(ResilienceProperties resilienceProperties) {
+        this(resilienceProperties, System::nanoTime);
+    }
+
+    public CircuitBreaker(ResilienceProperties resilienceProperties, LongSupplier nanoClock) {
+        this.minimumCalls = resilienceProperties.getMinimumCalls();
+        this.failureRateThresholdPercent = resilienceProperties.getFailureRateThresholdPercent();
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(resilienceProperties.getOpenDurationMillis());
+        this.halfOpenTrialCalls = Math.max(1, resilienceProperties.getHalfOpenTrialCalls());
+        this.nanoClock = nanoClock;
+        this.failedCalls = new boolean[Math.max(1, resilienceProperties.getSlidingWindowSize())];
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAtNanos < openDurationNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialCallsInFlight = 0;
+            successfulTrialCalls = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialCallsInFlight >= halfOpenTrialCalls) {
+                return false;
+            }
+            trialCallsInFlight++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++successfulTrialCalls >= halfOpenTrialCalls) {
+                close();
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+        }
+    }
+
+    /**
+     * Finishes a permitted call that says nothing about the database, such as one rejected locally.
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && trialCallsInFlight > 0) {
+            trialCallsInFlight--;
+        }
+    }
+
+    private void record(boolean failed) {
+        if (recordedCalls == failedCalls.length) {
+            if (failedCalls[nextCall]) {
+                recordedFailures--;
+            }
+        } else {
+            recordedCalls++;
+        }
+        failedCalls[nextCall] = failed;
+        if (failed) {
+            recordedFailures++;
+        }
+        nextCall = (nextCall + 1) % failedCalls.length;
+        if (recordedCalls >= minimumCalls && recordedFailures * 100 >= failureRateThresholdPercent * recordedCalls) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtNanos = nanoClock.getAsLong();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        nextCall = 0;
+        recordedCalls = 0;
+        recordedFailures = 0;
+    }
+}
@@ -0,0 +1,31 @@
+package com.lucas.beerstock.resilience;
+
+import lombok.Value;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * A read served either from the database or, when it is unavailable, from the last known good copy.
+ */
+@Value
+public class ReadResult<T> {
+
+    T value;
+
+    Instant fetchedAt;
+
+    boolean stale;
+
+    public static <T> ReadResult<T> fresh(T value) {
+        return new ReadResult<>(value, Instant.now(), false);
+    }
+
+    public ReadResult<T> asStale() {
+        return new ReadResult<>(value, fetchedAt, true);
+    }
+
+    public long ageSeconds() {
+        return Duration.between(fetchedAt, Instant.now()).getSeconds();
+    }
+}
@@ -1,50 +1,151 @@
 package com.lucas.beerstock.service;
 
+import com.lucas.beerstock.columnar.BeerColumnFilter;
+import com.lucas.beerstock.columnar.BeerColumnStore;
+import com.lucas.beerstock.datasource.ThreadLocalScope;
 import com.lucas.beerstock.dto.BeerDTO;
+import com.lucas.beerstock.dto.BeerLookupDTO;
+import com.lucas.beerstock.dto.BeerLookupResultDTO;
 import com.lucas.beerstock.entity.Beer;
 import com.lucas.beerstock.exception.BeerAlreadyRegisteredException;
 import com.lucas.beerstock.exception.BeerNotFoundException;
 import com.lucas.beerstock.exception.BeerStockExceededException;
 import com.lucas.beerstock.mapper.BeerMapper;
 import com.lucas.beerstock.repository.BeerRepository;
-import lombok.AllArgsConstructor;
+import com.lucas.beerstock.sharding.ShardRouter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 @Service
-@AllArgsConstructor(onConstructor = @__(@Autowired))
 public class BeerService {
 
+    private static final int LOOKUP_CHUNK_SIZE = 100;
+
+    /**
+     * Transaction timeouts, enforced on every statement, so a slow database fails the call instead of
+     * holding the request thread; {@link ResilientBeerService} counts the timeout as a database failure.
+     * Hibernate fails a statement once less than a whole second is left, so one second would fail them all.
+     */
+    static final int FIND_BY_NAME_TIMEOUT_SECONDS = 2;
+    static final int LIST_ALL_TIMEOUT_SECONDS = 3;
+    static final int LOOKUP_TIMEOUT_SECONDS = 3;
+    static final int WRITE_TIMEOUT_SECONDS = 5;
+
     private final BeerRepository beerRepository;
+    private final ShardRouter shardRouter;
+    private final BeerColumnStore beerColumnStore;
+    private final TransactionTemplate listAllTransaction;
     private final BeerMapper beerMapper = BeerMapper.INSTANCE;
 
+    @Autowired
+    public BeerService(BeerRepository beerRepository, ShardRouter shardRouter, BeerColumnStore beerColumnStore,
+                       TransactionTemplate transactionTemplate) {
+        this.beerRepository = beerRepository;
+        this.shardRouter = shardRouter;
+        this.beerColumnStore = beerColumnStore;
+        this.listAllTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.listAllTransaction.setReadOnly(true);
+        this.listAllTransaction.setTimeout(LIST_ALL_TIMEOUT_SECONDS);
+    }
+
+    @Transactional(timeout = WRITE_TIMEOUT_SECONDS)
     public BeerDTO createBeer(BeerDTO beerDTO) throws BeerAlreadyRegisteredException {
-        verifyIfIsAlreadyRegistered(beerDTO.getName());
-        Beer beer = beerMapper.toModel(beerDTO);
-        Beer savedBeer = beerRepository.save(beer);
-        return beerMapper.toDTO(savedBeer);
+        // Names are sharded by hash, so the unique-name check only needs the shard the beer will live on.
+        try (ThreadLocalScope scope = shardRouter.enter(shardRouter.shardForName(beerDTO.getName()))) {
+            verifyIfIsAlreadyRegistered(beerDTO.getName());
+            Beer beer = beerMapper.toModel(beerDTO);
+            Beer savedBeer = beerRepository.save(beer);
+            beerColumnStore.put(savedBeer);
+            return beerMapper.toDTO(savedBeer);
+        }
     }
 
+    @Transactional(readOnly = true, timeout = FIND_BY_NAME_TIMEOUT_SECONDS)
     public BeerDTO findByName(String name) throws BeerNotFoundException {
-        Beer foundBeer = beerRepository.findByName(name)
-                .orElseThrow(() -> new BeerNotFoundException(name));
-        return beerMapper.toDTO(foundBeer);
+        try (ThreadLocalScope scope = shardRouter.enter(shardRouter.shardForName(name))) {
+            Beer foundBeer = beerRepository.findByName(name)
+                    .orElseThrow(() -> new BeerNotFoundException(name));
+            return beerMapper.toDTO(foundBeer);
+        }
     }
 
+    /**
+     * Served from the column store once it is loaded, without starting a transaction, so listing does not
+     * need a database connection at all.
+     */
     public List<BeerDTO> listAll() {
-        return beerRepository.findAll()
-                .stream()
-                .map(beerMapper::toDTO)
-                .collect(Collectors.toList());
+        if (beerColumnStore.isLoaded()) {
+            return beerColumnStore.scan(new BeerColumnFilter(), Integer.MAX_VALUE);
+        }
+        return listAllTransaction.execute(status -> beerMapper.toDTOs(
+                shardRouter.onAllShards(shard -> beerRepository.findAll())
+                        .stream()
+                        .flatMap(List::stream)
+                        .sorted(Comparator.comparing(Beer::getId))
+                        .collect(Collectors.toList())));
+    }
+
+    @Transactional(readOnly = true, timeout = LOOKUP_TIMEOUT_SECONDS)
+    public BeerLookupResultDTO lookup(BeerLookupDTO beerLookupDTO) {
+        List<String> names = Optional.ofNullable(beerLookupDTO.getNames()).orElse(Collections.emptyList());
+        List<Long> ids = Optional.ofNullable(beerLookupDTO.getIds()).orElse(Collections.emptyList());
+        Map<String, Beer> beersByName = findOnShards(names, shardRouter::shardForName,
+                beerRepository::findByNameIn, Beer::getName);
+        Map<Long, Beer> beersById = findOnShards(ids, shardRouter::shardForId, beerRepository::findAllById, Beer::getId);
+
+        Map<Long, Beer> foundBeers = new LinkedHashMap<>();
+        BeerLookupResultDTO result = BeerLookupResultDTO.builder().build();
+        names.forEach(name -> Optional.ofNullable(beersByName.get(name))
+                .ifPresentOrElse(beer -> foundBeers.putIfAbsent(beer.getId(), beer),
+                        () -> result.getMissingNames().add(name)));
+        ids.forEach(id -> Optional.ofNullable(beersById.get(id))
+                .ifPresentOrElse(beer -> foundBeers.putIfAbsent(beer.getId(), beer),
+                        () -> result.getMissingIds().add(id)));
+        result.getFound().addAll(beerMapper.toDTOs(new ArrayList<>(foundBeers.values())));
+        return result;
     }
 
+    @Transactional(timeout = WRITE_TIMEOUT_SECONDS)
     public void deleteById(Long id) throws BeerNotFoundException {
-        verifyIfExists(id);
-        beerRepository.deleteById(id);
+        try (ThreadLocalScope scope = shardRouter.enter(shardRouter.shardForId(id))) {
+            verifyIfExists(id);
+            beerRepository.deleteById(id);
+            beerColumnStore.remove(id);
+        }
+    }
+
+    private <K> Map<K, Beer> findOnShards(Collection<K> keys, ToIntFunction<K> shardOf,
+                                          Function<List<K>, List<Beer>> finder, Function<Beer, K> keyExtractor) {
+        Map<Integer, List<K>> keysByShard = new LinkedHashSet<>(keys).stream()
+                .collect(Collectors.groupingBy(shardOf::applyAsInt, LinkedHashMap::new, Collectors.toList()));
+        Map<K, Beer> foundBeers = new HashMap<>();
+        shardRouter.onShards(keysByShard.keySet(), shard -> findInChunks(keysByShard.get(shard), finder))
+                .forEach(beers -> beers.forEach(beer -> foundBeers.put(keyExtractor.apply(beer), beer)));
+        return foundBeers;
+    }
+
+    private <K> List<Beer> findInChunks(List<K> keys, Function<List<K>, List<Beer>> finder) {
+        List<Beer> foundBeers = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += LOOKUP_CHUNK_SIZE) {
+            foundBeers.addAll(finder.apply(keys.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, keys.size()))));
+        }
+        return foundBeers;
     }
 
     private void verifyIfIsAlreadyRegistered(String name) throws BeerAlreadyRegisteredException {
@@ -59,14 +160,16 @@ public class BeerService {
                 .orElseThrow(() -> new BeerNotFoundException(id));
     }
 
+    @Transactional(timeout = WRITE_TIMEOUT_SECONDS)
     public BeerDTO increment(Long id, int quantityToIncrement) throws BeerNotFoundException, BeerStockExceededException {
-        Beer beerToIncrementStock = verifyIfExists(id);
-        int quantityAfterIncrement = quantityToIncrement + beerToIncrementStock.getQuantity();
-        if (quantityAfterIncrement <= beerToIncrementStock.getMax()) {
-            beerToIncrementStock.setQuantity(beerToIncrementStock.getQuantity() + quantityToIncrement);
-            Beer incrementedBeerStock = beerRepository.save(beerToIncrementStock);
-            return beerMapper.toDTO(incrementedBeerStock);
+        try (ThreadLocalScope scope = shardRouter.enter(shardRouter.shardForId(id))) {
+            if (beerRepository.incrementQuantity(id, quantityToIncrement) == 0) {
+                verifyIfExists(id);
+                throw new BeerStockExceededException(id, quantityToIncrement);
+            }
+            // The update is atomic, so concurrent increments commute and the column store can add the delta.
+            beerColumnStore.adjustQuantity(id, quantityToIncrement);
+            return beerMapper.toDTO(verifyIfExists(id));
         }
-        throw new BeerStockExceededException(id, quantityToIncrement);
     }
 }
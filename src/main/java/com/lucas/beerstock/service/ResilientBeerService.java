@@ -0,0 +1,249 @@
+package com.lucas.beerstock.service;
+
+import com.lucas.beerstock.config.ResilienceProperties;
+import com.lucas.beerstock.dto.BeerDTO;
+import com.lucas.beerstock.dto.BeerLookupDTO;
+import com.lucas.beerstock.dto.BeerLookupResultDTO;
+import com.lucas.beerstock.exception.BeerAlreadyRegisteredException;
+import com.lucas.beerstock.exception.BeerNotFoundException;
+import com.lucas.beerstock.exception.BeerStockExceededException;
+import com.lucas.beerstock.exception.DatabaseUnavailableException;
+import com.lucas.beerstock.resilience.CircuitBreaker;
+import com.lucas.beerstock.resilience.ReadResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Puts a circuit breaker in front of {@link BeerService}.
+ *
+ * <p>Calls run on the caller thread and are bounded by the timeout of their {@link BeerService} transaction.
+ * When the circuit is open or a read fails or times out, {@code findByName} and {@code listAll} fall back to
+ * the last known good result, and the stale entries are revalidated in the background until the database
+ * answers again. Nothing waits for capacity: calls are rejected straight away while the circuit is open or
+ * all read or write permits are taken.
+ */
+@Slf4j
+@Service
+public class ResilientBeerService {
+
+    private final BeerService beerService;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore readPermits;
+    private final Semaphore writePermits;
+    private final Map<String, ReadResult<BeerDTO>> lastKnownBeers;
+    private final AtomicReference<ReadResult<List<BeerDTO>>> lastKnownBeerList = new AtomicReference<>();
+    private final Set<String> staleNames = ConcurrentHashMap.newKeySet();
+    private volatile boolean beerListStale;
+
+    @Autowired
+    public ResilientBeerService(BeerService beerService, ResilienceProperties resilienceProperties) {
+        this(beerService, resilienceProperties, new CircuitBreaker(resilienceProperties));
+    }
+
+    public ResilientBeerService(BeerService beerService, ResilienceProperties resilienceProperties,
+                                CircuitBreaker circuitBreaker) {
+        this.beerService = beerService;
+        this.circuitBreaker = circuitBreaker;
+        this.readPermits = new Semaphore(Math.max(1, resilienceProperties.getMaxConcurrentReads()));
+        this.writePermits = new Semaphore(Math.max(1, resilienceProperties.getMaxConcurrentWrites()));
+        int maxEntries = resilienceProperties.getLastKnownGoodMaxEntries();
+        this.lastKnownBeers = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ReadResult<BeerDTO>> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    public ReadResult<BeerDTO> findByName(String name) throws BeerNotFoundException, DatabaseUnavailableException {
+        try {
+            ReadResult<BeerDTO> result = ReadResult.fresh(
+                    read(() -> beerService.findByName(name)));
+            lastKnownBeers.put(name, result);
+            staleNames.remove(name);
+            return result;
+        } catch (BeerNotFoundException e) {
+            lastKnownBeers.remove(name);
+            staleNames.remove(name);
+            throw e;
+        } catch (DatabaseUnavailableException e) {
+            ReadResult<BeerDTO> lastKnownGood = lastKnownBeers.get(name);
+            if (lastKnownGood == null) {
+                throw e;
+            }
+            staleNames.add(name);
+            return lastKnownGood.asStale();
+        }
+    }
+
+    public ReadResult<List<BeerDTO>> listAll() throws DatabaseUnavailableException {
+        try {
+            ReadResult<List<BeerDTO>> result = ReadResult.fresh(
+                    read(beerService::listAll));
+            lastKnownBeerList.set(result);
+            beerListStale = false;
+            return result;
+        } catch (DatabaseUnavailableException e) {
+            ReadResult<List<BeerDTO>> lastKnownGood = lastKnownBeerList.get();
+            if (lastKnownGood == null) {
+                throw e;
+            }
+            beerListStale = true;
+            return lastKnownGood.asStale();
+        }
+    }
+
+    public BeerLookupResultDTO lookup(BeerLookupDTO beerLookupDTO) throws DatabaseUnavailableException {
+        return read(() -> beerService.lookup(beerLookupDTO));
+    }
+
+    public BeerDTO createBeer(BeerDTO beerDTO) throws BeerAlreadyRegisteredException, DatabaseUnavailableException {
+        acquire(writePermits);
+        boolean databaseFailed = false;
+        try {
+            BeerDTO createdBeer = beerService.createBeer(beerDTO);
+            lastKnownBeers.put(createdBeer.getName(), ReadResult.fresh(createdBeer));
+            return createdBeer;
+        } catch (RuntimeException e) {
+            databaseFailed = isDatabaseFailure(e);
+            if (databaseFailed) {
+                throw new DatabaseUnavailableException(e);
+            }
+            throw e;
+        } finally {
+            release(writePermits, databaseFailed);
+        }
+    }
+
+    public void deleteById(Long id) throws BeerNotFoundException, DatabaseUnavailableException {
+        acquire(writePermits);
+        boolean databaseFailed = false;
+        try {
+            beerService.deleteById(id);
+            synchronized (lastKnownBeers) {
+                lastKnownBeers.values().removeIf(result -> id.equals(result.getValue().getId()));
+            }
+        } catch (RuntimeException e) {
+            databaseFailed = isDatabaseFailure(e);
+            if (databaseFailed) {
+                throw new DatabaseUnavailableException(e);
+            }
+            throw e;
+        } finally {
+            release(writePermits, databaseFailed);
+        }
+    }
+
+    public BeerDTO increment(Long id, int quantityToIncrement)
+            throws BeerNotFoundException, BeerStockExceededException, DatabaseUnavailableException {
+        acquire(writePermits);
+        boolean databaseFailed = false;
+        try {
+            BeerDTO incrementedBeer = beerService.increment(id, quantityToIncrement);
+            lastKnownBeers.put(incrementedBeer.getName(), ReadResult.fresh(incrementedBeer));
+            return incrementedBeer;
+        } catch (RuntimeException e) {
+            databaseFailed = isDatabaseFailure(e);
+            if (databaseFailed) {
+                throw new DatabaseUnavailableException(e);
+            }
+            throw e;
+        } finally {
+            release(writePermits, databaseFailed);
+        }
+    }
+
+    /**
+     * Revalidates the reads that were last served stale, stopping as soon as the database fails again.
+     */
+    @Scheduled(fixedDelayString = "${beerstock.resilience.refresh-interval-millis:5000}")
+    public void refreshStaleReads() {
+        for (String name : new ArrayList<>(staleNames)) {
+            try {
+                if (findByName(name).isStale()) {
+                    return;
+                }
+            } catch (BeerNotFoundException | DatabaseUnavailableException e) {
+                log.debug("Could not refresh stale beer {}", name, e);
+            }
+        }
+        try {
+            if (beerListStale) {
+                listAll();
+            }
+        } catch (DatabaseUnavailableException e) {
+            log.debug("Could not refresh stale beer list", e);
+        }
+    }
+
+    private <T, E extends Exception> T read(DatabaseRead<T, E> read) throws E, DatabaseUnavailableException {
+        acquire(readPermits);
+        boolean databaseFailed = false;
+        try {
+            return read.read();
+        } catch (RuntimeException e) {
+            databaseFailed = isDatabaseFailure(e);
+            if (databaseFailed) {
+                throw new DatabaseUnavailableException(e);
+            }
+            throw e;
+        } finally {
+            release(readPermits, databaseFailed);
+        }
+    }
+
+    private void acquire(Semaphore permits) throws DatabaseUnavailableException {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new DatabaseUnavailableException();
+        }
+        if (!permits.tryAcquire()) {
+            circuitBreaker.onIgnored();
+            throw new DatabaseUnavailableException();
+        }
+    }
+
+    private void release(Semaphore permits, boolean databaseFailed) {
+        permits.release();
+        if (databaseFailed) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+    }
+
+    /**
+     * Only failures that say the database is unreachable or too slow count; conflicts such as a duplicate
+     * name or a concurrently deleted beer mean it answered, and are passed on unchanged.
+     */
+    private boolean isDatabaseFailure(Throwable throwable) {
+        return throwable instanceof TransientDataAccessException
+                || throwable instanceof RecoverableDataAccessException
+                || throwable instanceof DataAccessResourceFailureException
+                || throwable instanceof TransactionException;
+    }
+
+    private interface DatabaseRead<T, E extends Exception> {
+
+        T read() throws E;
+    }
+}
@@ -0,0 +1,121 @@
+package com.lucas.beerstock.sharding;
+
+import com.lucas.beerstock.config.ShardingProperties;
+import com.lucas.beerstock.datasource.ThreadLocalScope;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Maps beers to shards and binds the current thread to a shard for {@link ShardRoutingDataSource}.
+ *
+ * <p>Names are hashed; ids are allocated per shard as {@code shard + 1 + k * shardCount}, so the shard
+ * of an id is known without a lookup. With a single shard every call simply runs on the caller thread.
+ */
+@Component
+public class ShardRouter {
+
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    private final int shardCount;
+    private final ExecutorService executor;
+
+    @Autowired
+    public ShardRouter(ShardingProperties shardingProperties) {
+        this(Math.max(1, shardingProperties.getShards().size()));
+    }
+
+    public ShardRouter(int shardCount) {
+        this.shardCount = shardCount;
+        this.executor = shardCount > 1 ? Executors.newFixedThreadPool(shardCount, new ShardThreadFactory()) : null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public int shardForName(String name) {
+        return Math.floorMod(name.hashCode(), shardCount);
+    }
+
+    public int shardForId(Long id) {
+        return (int) Math.floorMod(id - 1, (long) shardCount);
+    }
+
+    public static int currentShard() {
+        Integer shard = CURRENT_SHARD.get();
+        return shard == null ? 0 : shard;
+    }
+
+    /**
+     * Binds the current thread to {@code shard} until the returned scope is closed.
+     */
+    public ThreadLocalScope enter(int shard) {
+        return ThreadLocalScope.bind(CURRENT_SHARD, shard);
+    }
+
+    public <T> List<T> onAllShards(IntFunction<T> work) {
+        return onShards(IntStream.range(0, shardCount).boxed().collect(Collectors.toList()), work);
+    }
+
+    /**
+     * Runs {@code work} once per shard, in parallel when there is more than one shard. Each invocation
+     * runs on its own thread so it gets its own transaction and connection.
+     */
+    public <T> List<T> onShards(Collection<Integer> shards, IntFunction<T> work) {
+        if (executor == null) {
+            List<T> results = new ArrayList<>(shards.size());
+            shards.forEach(shard -> results.add(runOnShard(shard, work)));
+            return results;
+        }
+        List<CompletableFuture<T>> futures = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> runOnShard(shard, work), executor))
+                .collect(Collectors.toList());
+        try {
+            return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private <T> T runOnShard(int shard, IntFunction<T> work) {
+        try (ThreadLocalScope scope = enter(shard)) {
+            return work.apply(shard);
+        }
+    }
+
+    private static class ShardThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "shard-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.lucas.beerstock.snapshot;
+
+import com.lucas.beerstock.entity.Beer;
+import com.lucas.beerstock.enums.BeerType;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+public final class BeerSnapshotReader {
+
+    private static final int VERSION_WITHOUT_JOURNAL_SEQUENCE = 1;
+
+    private BeerSnapshotReader() {
+    }
+
+    /**
+     * Reads the sequence of the last stock journal record contained in the snapshot; snapshots written before
+     * the journal position was recorded contain none.
+     */
+    public static long readJournalSequence(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), 16));
+            try {
+                return readHeader(buffer);
+            } catch (BufferUnderflowException e) {
+                throw new IOException("Truncated snapshot: " + path, e);
+            }
+        }
+    }
+
+    /**
+     * Maps the snapshot file and hands its beers to {@code batchConsumer} in batches of {@code batchSize}.
+     *
+     * @return the number of beers read
+     */
+    public static long read(Path path, int batchSize, Consumer<List<Beer>> batchConsumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large to map: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try {
+                return read(buffer, batchSize, batchConsumer);
+            } catch (BufferUnderflowException e) {
+                throw new IOException("Truncated snapshot: " + path, e);
+            }
+        }
+    }
+
+    private static long readHeader(MappedByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != BeerSnapshotWriter.MAGIC) {
+            throw new IOException("Not a beer snapshot");
+        }
+        int version = buffer.getInt();
+        if (version == VERSION_WITHOUT_JOURNAL_SEQUENCE) {
+            return 0;
+        }
+        if (version != BeerSnapshotWriter.VERSION) {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+        return buffer.getLong();
+    }
+
+    private static long read(MappedByteBuffer buffer, int batchSize, Consumer<List<Beer>> batchConsumer)
+            throws IOException {
+        readHeader(buffer);
+        BeerType[] types = new BeerType[buffer.get() & 0xFF];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = readType(buffer);
+        }
+
+        long count = 0;
+        List<Beer> batch = new ArrayList<>(batchSize);
+        while (buffer.get() == BeerSnapshotWriter.RECORD_MARKER) {
+            long id = buffer.getLong();
+            int max = buffer.getInt();
+            int quantity = buffer.getInt();
+            int typeIndex = buffer.get() & 0xFF;
+            if (typeIndex >= types.length) {
+                throw new IOException("Corrupted snapshot: unknown beer type " + typeIndex);
+            }
+            BeerType type = types[typeIndex];
+            String name = readString(buffer);
+            String brand = readString(buffer);
+            batch.add(new Beer(id, name, brand, max, quantity, type));
+            count++;
+            if (batch.size() == batchSize) {
+                batchConsumer.accept(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (buffer.getLong() != count) {
+            throw new IOException("Corrupted snapshot: record count mismatch");
+        }
+        if (!batch.isEmpty()) {
+            batchConsumer.accept(batch);
+        }
+        return count;
+    }
+
+    private static BeerType readType(MappedByteBuffer buffer) throws IOException {
+        String name = readString(buffer);
+        try {
+            return BeerType.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupted snapshot: unknown beer type " + name, e);
+        }
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,213 @@
+package com.lucas.beerstock.snapshot;
+
+import com.lucas.beerstock.config.SnapshotProperties;
+import com.lucas.beerstock.datasource.ThreadLocalScope;
+import com.lucas.beerstock.entity.Beer;
+import com.lucas.beerstock.enums.BeerType;
+import com.lucas.beerstock.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class BeerSnapshotService {
+
+    private static final String SELECT_BEERS = "SELECT id, name, brand, max, quantity, type FROM beer ORDER BY id";
+    private static final String INSERT_BEER = "INSERT INTO beer (id, name, brand, max, quantity, type) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String COUNT_BEERS = "SELECT COUNT(*) FROM beer";
+    private static final String MAX_BEER_ID = "SELECT COALESCE(MAX(id), 0) FROM beer";
+    private static final String RESTART_BEER_ID = "ALTER TABLE beer ALTER COLUMN id RESTART WITH ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final SnapshotProperties snapshotProperties;
+    private volatile JournalCheckpoint journalCheckpoint;
+    private volatile long journalSequence;
+    private volatile boolean writesDisabled;
+
+    @PostConstruct
+    public void load() {
+        Path path = Paths.get(snapshotProperties.getPath());
+        if (!snapshotProperties.isEnabled() || !Files.exists(path)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            long snapshotJournalSequence = BeerSnapshotReader.readJournalSequence(path);
+            long loaded = 0;
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                loaded += loadShard(path, shard);
+            }
+            journalSequence = snapshotJournalSequence;
+            log.info("Loaded {} beers from snapshot {} in {} ms", loaded, path, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | UncheckedIOException e) {
+            // Never overwrite the only copy of the catalogue with the empty one we would start with.
+            writesDisabled = true;
+            moveAside(path);
+            throw new IllegalStateException("Could not read beer snapshot " + path, e);
+        } catch (RuntimeException e) {
+            // The file is fine, the database is not: keep it in place so the next start can load it.
+            writesDisabled = true;
+            throw new IllegalStateException("Could not restore beer snapshot " + path + " into the database", e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return snapshotProperties.isEnabled();
+    }
+
+    /**
+     * Sequence of the last stock journal record contained in the most recently loaded or written snapshot.
+     */
+    public long getJournalSequence() {
+        return journalSequence;
+    }
+
+    public void registerJournalCheckpoint(JournalCheckpoint journalCheckpoint) {
+        this.journalCheckpoint = journalCheckpoint;
+    }
+
+    /**
+     * Stops asking the journal for its position; later snapshots record {@code lastAppliedSequence}, which
+     * must therefore cover everything the journal applied to the database.
+     */
+    public void unregisterJournalCheckpoint(long lastAppliedSequence) {
+        journalSequence = lastAppliedSequence;
+        journalCheckpoint = null;
+    }
+
+    @Scheduled(fixedDelayString = "${beerstock.snapshot.interval-millis:60000}",
+            initialDelayString = "${beerstock.snapshot.interval-millis:60000}")
+    public void scheduledSnapshot() {
+        if (snapshotProperties.isEnabled()) {
+            snapshot();
+        }
+    }
+
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        if (snapshotProperties.isEnabled()) {
+            snapshot();
+        }
+    }
+
+    public synchronized void snapshot() {
+        Path path = Paths.get(snapshotProperties.getPath());
+        if (writesDisabled) {
+            log.warn("Not writing beer snapshot {}: it could not be loaded at startup", path);
+            return;
+        }
+        try {
+            JournalCheckpoint checkpoint = journalCheckpoint;
+            long sequence = checkpoint == null
+                    ? writeSnapshot(path, journalSequence)
+                    : checkpoint.whileApplyingIsPaused(appliedSequence -> writeSnapshot(path, appliedSequence));
+            journalSequence = sequence;
+            if (checkpoint != null) {
+                checkpoint.snapshotWritten(sequence);
+            }
+        } catch (UncheckedIOException | IllegalStateException e) {
+            log.error("Could not write beer snapshot {}", path, e);
+        }
+    }
+
+    /**
+     * Restores the beers of one shard, unless the shard already holds beers. The transaction also waits for
+     * the JPA bootstrap, so the schema exists before we insert.
+     */
+    private long loadShard(Path path, int shard) {
+        try (ThreadLocalScope scope = shardRouter.enter(shard)) {
+            return transactionTemplate.execute(status -> {
+                if (jdbcTemplate.queryForObject(COUNT_BEERS, Long.class) > 0) {
+                    return 0L;
+                }
+                long count = readSnapshot(path, shard);
+                // Shard k hands out ids k + 1, k + 1 + n, ..., so the next id is one stride past the largest.
+                long maxId = jdbcTemplate.queryForObject(MAX_BEER_ID, Long.class);
+                jdbcTemplate.execute(RESTART_BEER_ID + (maxId == 0 ? shard + 1 : maxId + shardRouter.getShardCount()));
+                return count;
+            });
+        }
+    }
+
+    private long writeSnapshot(Path path, long sequence) {
+        long start = System.nanoTime();
+        try (BeerSnapshotWriter writer = new BeerSnapshotWriter(path, sequence)) {
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                try (ThreadLocalScope scope = shardRouter.enter(shard)) {
+                    jdbcTemplate.query(SELECT_BEERS, resultSet -> {
+                        try {
+                            writer.write(new Beer(resultSet.getLong("id"), resultSet.getString("name"),
+                                    resultSet.getString("brand"), resultSet.getInt("max"), resultSet.getInt("quantity"),
+                                    BeerType.valueOf(resultSet.getString("type"))));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+            }
+            long count = writer.commit();
+            log.info("Wrote {} beers to snapshot {} in {} ms", count, path, (System.nanoTime() - start) / 1_000_000);
+            return sequence;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void moveAside(Path path) {
+        Path corruptPath = path.resolveSibling(path.getFileName() + ".corrupt-" + System.currentTimeMillis());
+        try {
+            Files.move(path, corruptPath);
+            log.error("Moved unreadable beer snapshot {} to {}", path, corruptPath);
+        } catch (IOException e) {
+            log.error("Could not move unreadable beer snapshot {} aside", path, e);
+        }
+    }
+
+    private long readSnapshot(Path path, int shard) {
+        AtomicLong inserted = new AtomicLong();
+        try {
+            BeerSnapshotReader.read(path, snapshotProperties.getLoadBatchSize(), beers -> {
+                List<Beer> shardBeers = beers.stream()
+                        .filter(beer -> shardRouter.shardForId(beer.getId()) == shard)
+                        .collect(Collectors.toList());
+                if (!shardBeers.isEmpty()) {
+                    insertBatch(shardBeers);
+                    inserted.addAndGet(shardBeers.size());
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return inserted.get();
+    }
+
+    private void insertBatch(List<Beer> beers) {
+        jdbcTemplate.batchUpdate(INSERT_BEER, beers, beers.size(), (statement, beer) -> {
+            statement.setLong(1, beer.getId());
+            statement.setString(2, beer.getName());
+            statement.setString(3, beer.getBrand());
+            statement.setInt(4, beer.getMax());
+            statement.setInt(5, beer.getQuantity());
+            statement.setString(6, beer.getType().name());
+        });
+    }
+}
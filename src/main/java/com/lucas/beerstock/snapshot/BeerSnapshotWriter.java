@@ -0,0 +1,106 @@
+package com.lucas.beerstock.snapshot;
+
+import com.lucas.beerstock.entity.Beer;
+import com.lucas.beerstock.enums.BeerType;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a catalogue snapshot to a temporary file that only replaces the previous snapshot on {@link #commit()}.
+ * The file and the rename are forced to disk before {@code commit()} returns, since journal records covered by
+ * the snapshot are dropped afterwards.
+ *
+ * <p>Layout: magic, version, the sequence of the last stock journal record contained in the snapshot, the
+ * {@link BeerType} names (so ordinals survive enum reordering), then one record per beer prefixed by a marker
+ * byte, and finally an end marker followed by the record count.
+ */
+public class BeerSnapshotWriter implements Closeable {
+
+    static final int MAGIC = 0x42534E50;
+    static final int VERSION = 2;
+    static final byte RECORD_MARKER = 1;
+    static final byte END_MARKER = 0;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path path;
+    private final Path tempPath;
+    private final FileChannel channel;
+    private final DataOutputStream output;
+    private long count;
+    private boolean committed;
+
+    public BeerSnapshotWriter(Path path, long journalSequence) throws IOException {
+        this.path = path;
+        if (path.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        }
+        this.tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        this.channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        this.output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeLong(journalSequence);
+        output.writeByte(BeerType.values().length);
+        for (BeerType type : BeerType.values()) {
+            writeString(type.name());
+        }
+    }
+
+    public void write(Beer beer) throws IOException {
+        output.writeByte(RECORD_MARKER);
+        output.writeLong(beer.getId());
+        output.writeInt(beer.getMax());
+        output.writeInt(beer.getQuantity());
+        output.writeByte(beer.getType().ordinal());
+        writeString(beer.getName());
+        writeString(beer.getBrand());
+        count++;
+    }
+
+    public long commit() throws IOException {
+        output.writeByte(END_MARKER);
+        output.writeLong(count);
+        output.flush();
+        channel.force(true);
+        output.close();
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        committed = true;
+        forceDirectory(tempPath.toAbsolutePath().getParent());
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!committed) {
+            output.close();
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    /**
+     * Makes the rename durable; without it a crash can bring back the previous snapshot, or none at all.
+     */
+    private static void forceDirectory(Path directory) throws IOException {
+        try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            directoryChannel.force(true);
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeShort(bytes.length);
+        output.write(bytes);
+    }
+}
@@ -0,0 +1,21 @@
+package com.lucas.beerstock.snapshot;
+
+import java.util.function.LongFunction;
+
+/**
+ * Tells a catalogue snapshot which stock journal records it contains, so the journal can keep every
+ * record until a snapshot covers it and replay only the records written after that snapshot.
+ */
+public interface JournalCheckpoint {
+
+    /**
+     * Runs {@code read} while no journal records are being applied, passing it the sequence of the last
+     * record applied to the database.
+     */
+    <T> T whileApplyingIsPaused(LongFunction<T> read);
+
+    /**
+     * Called once a snapshot containing every record up to {@code sequence} has been written.
+     */
+    void snapshotWritten(long sequence);
+}
@@ -0,0 +1,23 @@
+package com.lucas.beerstock.tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.lucas.beerstock.Request")
+@Label("Beer API Request")
+@Category("Beer Stock")
+@StackTrace(false)
+public class BeerRequestEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("URI")
+    String uri;
+
+    @Label("Status")
+    int status;
+}
@@ -0,0 +1,23 @@
+package com.lucas.beerstock.tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+@Category("Beer Stock")
+@StackTrace(false)
+public abstract class BeerStageEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Beer Id")
+    long beerId;
+
+    @Label("Beer Name")
+    String beerName;
+
+    @Label("Row Count")
+    int rowCount;
+}
@@ -0,0 +1,9 @@
+package com.lucas.beerstock.tracing;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.lucas.beerstock.Controller")
+@Label("Beer Controller Handler")
+public class ControllerEvent extends BeerStageEvent {
+}
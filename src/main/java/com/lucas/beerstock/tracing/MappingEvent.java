@@ -0,0 +1,9 @@
+package com.lucas.beerstock.tracing;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.lucas.beerstock.Mapping")
+@Label("Beer Mapping")
+public class MappingEvent extends BeerStageEvent {
+}
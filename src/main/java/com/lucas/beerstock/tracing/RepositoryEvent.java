@@ -0,0 +1,9 @@
+package com.lucas.beerstock.tracing;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.lucas.beerstock.Repository")
+@Label("Beer Repository Call")
+public class RepositoryEvent extends BeerStageEvent {
+}
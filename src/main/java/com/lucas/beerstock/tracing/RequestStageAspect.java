@@ -0,0 +1,37 @@
+package com.lucas.beerstock.tracing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+@Aspect
+@Component
+public class RequestStageAspect {
+
+    @Around("within(com.lucas.beerstock.controller.BeerController)")
+    public Object traceController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(Stage.CONTROLLER, joinPoint);
+    }
+
+    @Around("within(com.lucas.beerstock.service.BeerService)")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(Stage.SERVICE, joinPoint);
+    }
+
+    @Around("this(com.lucas.beerstock.repository.BeerRepository)")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(Stage.REPOSITORY, joinPoint);
+    }
+
+    private Object trace(Stage stage, ProceedingJoinPoint joinPoint) throws Throwable {
+        StageSpan span = StageSpan.start(stage, joinPoint.getSignature().getName());
+        Object result = null;
+        try {
+            result = joinPoint.proceed();
+            return result;
+        } finally {
+            span.end(joinPoint.getArgs(), result);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.lucas.beerstock.tracing;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-request breakdown of time spent in each stage, aggregated by stage and operation so that
+ * per-row stages (mapping a whole list) stay bounded in size.
+ */
+@Getter
+public class RequestTrace {
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+
+    private final String method;
+    private final String uri;
+    private final long startNanos = System.nanoTime();
+    private final List<StageSummary> stages = new ArrayList<>();
+    private Long beerId;
+    private String beerName;
+
+    private RequestTrace(String method, String uri) {
+        this.method = method;
+        this.uri = uri;
+    }
+
+    public static RequestTrace start(String method, String uri) {
+        RequestTrace trace = new RequestTrace(method, uri);
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    public static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    public void finish() {
+        CURRENT.remove();
+    }
+
+    public List<StageSummary> stageSummaries() {
+        return new ArrayList<>(stages);
+    }
+
+    void record(Stage stage, String operation, long nanos, int rowCount, Long id, String name) {
+        summaryOf(stage, operation).add(nanos, rowCount);
+        if (beerId == null) {
+            beerId = id;
+        }
+        if (beerName == null) {
+            beerName = name;
+        }
+    }
+
+    /**
+     * A request only touches a handful of stage and operation pairs, so a linear scan beats building a
+     * composite key for every recorded call.
+     */
+    private StageSummary summaryOf(Stage stage, String operation) {
+        for (StageSummary summary : stages) {
+            if (summary.getStage() == stage && summary.getOperation().equals(operation)) {
+                return summary;
+            }
+        }
+        StageSummary summary = new StageSummary(stage, operation);
+        stages.add(summary);
+        return summary;
+    }
+}
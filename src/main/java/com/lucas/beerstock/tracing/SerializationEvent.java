@@ -0,0 +1,9 @@
+package com.lucas.beerstock.tracing;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.lucas.beerstock.Serialization")
+@Label("Beer JSON Serialization")
+public class SerializationEvent extends BeerStageEvent {
+}
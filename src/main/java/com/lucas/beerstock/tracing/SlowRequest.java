@@ -0,0 +1,26 @@
+package com.lucas.beerstock.tracing;
+
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+
+@Value
+public class SlowRequest {
+
+    Instant timestamp;
+
+    String method;
+
+    String uri;
+
+    int status;
+
+    double durationMillis;
+
+    Long beerId;
+
+    String beerName;
+
+    List<StageSummary> stages;
+}
@@ -0,0 +1,58 @@
+package com.lucas.beerstock.tracing;
+
+import com.lucas.beerstock.config.TracingProperties;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class SlowRequestFilter extends OncePerRequestFilter {
+
+    private static final String BEER_API_URL_PATH = "/api/v1/beers";
+
+    private final TracingProperties tracingProperties;
+    private final SlowRequestRecorder slowRequestRecorder;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(BEER_API_URL_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        BeerRequestEvent event = new BeerRequestEvent();
+        event.begin();
+        RequestTrace trace = RequestTrace.start(request.getMethod(), request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            trace.finish();
+            long nanos = System.nanoTime() - trace.getStartNanos();
+            if (event.shouldCommit()) {
+                event.method = trace.getMethod();
+                event.uri = trace.getUri();
+                event.status = response.getStatus();
+                event.commit();
+            }
+            if (nanos >= TimeUnit.MILLISECONDS.toNanos(tracingProperties.getSlowRequestThresholdMillis())) {
+                slowRequestRecorder.record(new SlowRequest(Instant.now(), trace.getMethod(), trace.getUri(),
+                        response.getStatus(), nanos / 1_000_000.0, trace.getBeerId(), trace.getBeerName(),
+                        trace.stageSummaries()));
+            }
+        }
+    }
+}
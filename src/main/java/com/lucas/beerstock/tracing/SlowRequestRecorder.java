@@ -0,0 +1,43 @@
+package com.lucas.beerstock.tracing;
+
+import com.lucas.beerstock.config.TracingProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size ring buffer holding the most recent slow requests.
+ */
+@Component
+public class SlowRequestRecorder {
+
+    private final AtomicReferenceArray<SlowRequest> buffer;
+    private final AtomicLong written = new AtomicLong();
+
+    @Autowired
+    public SlowRequestRecorder(TracingProperties tracingProperties) {
+        this.buffer = new AtomicReferenceArray<>(Math.max(1, tracingProperties.getSlowRequestBufferSize()));
+    }
+
+    public void record(SlowRequest slowRequest) {
+        long slot = written.getAndIncrement();
+        buffer.set((int) (slot % buffer.length()), slowRequest);
+    }
+
+    public List<SlowRequest> newestFirst() {
+        long end = written.get();
+        long start = Math.max(0, end - buffer.length());
+        List<SlowRequest> slowRequests = new ArrayList<>();
+        for (long slot = end - 1; slot >= start; slot--) {
+            SlowRequest slowRequest = buffer.get((int) (slot % buffer.length()));
+            if (slowRequest != null) {
+                slowRequests.add(slowRequest);
+            }
+        }
+        return slowRequests;
+    }
+}
@@ -0,0 +1,22 @@
+package com.lucas.beerstock.tracing;
+
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Endpoint(id = "slowrequests")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class SlowRequestsEndpoint {
+
+    private final SlowRequestRecorder slowRequestRecorder;
+
+    @ReadOperation
+    public List<SlowRequest> slowRequests() {
+        return slowRequestRecorder.newestFirst();
+    }
+}
@@ -0,0 +1,30 @@
+package com.lucas.beerstock.tracing;
+
+import jdk.jfr.EventType;
+
+import java.util.function.Supplier;
+
+public enum Stage {
+
+    CONTROLLER(ControllerEvent.class, ControllerEvent::new),
+    SERVICE(ServiceEvent.class, ServiceEvent::new),
+    REPOSITORY(RepositoryEvent.class, RepositoryEvent::new),
+    MAPPING(MappingEvent.class, MappingEvent::new),
+    SERIALIZATION(SerializationEvent.class, SerializationEvent::new);
+
+    private final EventType eventType;
+    private final Supplier<BeerStageEvent> eventFactory;
+
+    Stage(Class<? extends BeerStageEvent> eventClass, Supplier<BeerStageEvent> eventFactory) {
+        this.eventType = EventType.getEventType(eventClass);
+        this.eventFactory = eventFactory;
+    }
+
+    boolean isEventEnabled() {
+        return eventType.isEnabled();
+    }
+
+    BeerStageEvent newEvent() {
+        return eventFactory.get();
+    }
+}
@@ -0,0 +1,80 @@
+package com.lucas.beerstock.tracing;
+
+import com.lucas.beerstock.dto.BeerDTO;
+import com.lucas.beerstock.entity.Beer;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Times one stage call: always feeds the current {@link RequestTrace}, and commits a JFR event only
+ * when the event type is enabled and over its recording threshold. Outside a traced request with the
+ * event type disabled, a shared no-op span is returned and nothing is allocated or timed.
+ */
+public class StageSpan {
+
+    private static final StageSpan NOOP = new StageSpan(null, null, null, 0);
+
+    private final Stage stage;
+    private final String operation;
+    private final BeerStageEvent event;
+    private final long startNanos;
+
+    private StageSpan(Stage stage, String operation, BeerStageEvent event, long startNanos) {
+        this.stage = stage;
+        this.operation = operation;
+        this.event = event;
+        this.startNanos = startNanos;
+    }
+
+    public static StageSpan start(Stage stage, String operation) {
+        if (RequestTrace.current() == null && !stage.isEventEnabled()) {
+            return NOOP;
+        }
+        BeerStageEvent event = stage.newEvent();
+        event.begin();
+        return new StageSpan(stage, operation, event, System.nanoTime());
+    }
+
+    public void end(Object[] arguments, Object result) {
+        if (this == NOOP) {
+            return;
+        }
+        long nanos = System.nanoTime() - startNanos;
+        RequestTrace trace = RequestTrace.current();
+        boolean commitEvent = event.shouldCommit();
+        if (trace == null && !commitEvent) {
+            return;
+        }
+
+        Long beerId = null;
+        String beerName = null;
+        for (Object value : arguments) {
+            if (value instanceof Long && beerId == null) {
+                beerId = (Long) value;
+            } else if (value instanceof String && beerName == null) {
+                beerName = (String) value;
+            }
+        }
+        Object single = result instanceof Optional ? ((Optional<?>) result).orElse(null) : result;
+        if (single instanceof BeerDTO) {
+            beerId = beerId == null ? ((BeerDTO) single).getId() : beerId;
+            beerName = beerName == null ? ((BeerDTO) single).getName() : beerName;
+        } else if (single instanceof Beer) {
+            beerId = beerId == null ? ((Beer) single).getId() : beerId;
+            beerName = beerName == null ? ((Beer) single).getName() : beerName;
+        }
+        int rowCount = single instanceof Collection ? ((Collection<?>) single).size() : single == null ? 0 : 1;
+
+        if (trace != null) {
+            trace.record(stage, operation, nanos, rowCount, beerId, beerName);
+        }
+        if (commitEvent) {
+            event.operation = operation;
+            event.beerId = beerId == null ? 0 : beerId;
+            event.beerName = beerName;
+            event.rowCount = rowCount;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.lucas.beerstock.tracing;
+
+import lombok.Getter;
+
+@Getter
+public class StageSummary {
+
+    private final Stage stage;
+    private final String operation;
+    private int calls;
+    private long totalNanos;
+    private long rows;
+
+    StageSummary(Stage stage, String operation) {
+        this.stage = stage;
+        this.operation = operation;
+    }
+
+    void add(long nanos, int rowCount) {
+        calls++;
+        totalNanos += nanos;
+        rows += rowCount;
+    }
+
+    public double getTotalMillis() {
+        return totalNanos / 1_000_000.0;
+    }
+}
@@ -3,7 +3,7 @@ package com.lucas.beerstock;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "beerstock.grpc.port=0")
 class BeerstockApplicationTests {
 
     @Test
@@ -0,0 +1,97 @@
+package com.lucas.beerstock.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdaptiveConcurrencyLimitTest {
+    private static final long FAST_RTT = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW_RTT = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @Test
+    void whenLimitIsReachedThenAcquireIsRefused() {
+        // Given
+        AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(2, 1, 10, 0.2);
+
+        //Then
+        assertTrue(concurrencyLimit.tryAcquire(1.0));
+        assertTrue(concurrencyLimit.tryAcquire(1.0));
+        assertFalse(concurrencyLimit.tryAcquire(1.0));
+        assertThat(concurrencyLimit.getInFlight(), is(equalTo(2)));
+    }
+
+    @Test
+    void whenShareIsLowerThanOneThenLowPriorityRequestsAreRefusedFirst() {
+        // Given
+        AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(10, 1, 10, 0.2);
+        for (int i = 0; i < 5; i++) {
+            concurrencyLimit.tryAcquire(0.5);
+        }
+
+        //Then
+        assertFalse(concurrencyLimit.tryAcquire(0.5));
+        assertTrue(concurrencyLimit.tryAcquire(1.0));
+    }
+
+    @Test
+    void whenLatencyStaysFlatUnderLoadThenLimitGrows() {
+        // Given
+        AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(10, 1, 100, 0.2);
+
+        //When
+        saturate(concurrencyLimit, FAST_RTT, 50);
+
+        //Then
+        assertThat(concurrencyLimit.getLimit(), is(greaterThan(10)));
+    }
+
+    @Test
+    void whenLatencyRisesUnderLoadThenLimitShrinks() {
+        // Given
+        AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(50, 1, 100, 0.2);
+        saturate(concurrencyLimit, FAST_RTT, 20);
+        int limitBeforeSlowdown = concurrencyLimit.getLimit();
+
+        //When
+        saturate(concurrencyLimit, SLOW_RTT, 20);
+
+        //Then
+        assertThat(concurrencyLimit.getLimit(), is(lessThan(limitBeforeSlowdown)));
+    }
+
+    @Test
+    void whenRequestsFailThenLimitBacksOffMultiplicatively() {
+        // Given
+        AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(20, 5, 100, 0.2);
+
+        //When
+        for (int i = 0; i < 30; i++) {
+            concurrencyLimit.tryAcquire(1.0);
+            concurrencyLimit.releaseDropped();
+        }
+
+        //Then
+        assertThat(concurrencyLimit.getLimit(), is(equalTo(5)));
+        assertThat(concurrencyLimit.getInFlight(), is(equalTo(0)));
+    }
+
+    private void saturate(AdaptiveConcurrencyLimit concurrencyLimit, long rttNanos, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (concurrencyLimit.tryAcquire(1.0)) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                concurrencyLimit.release(rttNanos);
+            }
+        }
+    }
+}
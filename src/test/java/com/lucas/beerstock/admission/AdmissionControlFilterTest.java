@@ -0,0 +1,147 @@
+package com.lucas.beerstock.admission;
+
+import com.lucas.beerstock.config.AdmissionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AdmissionControlFilterTest {
+    private static final String BEER_API_URL_PATH = "/api/v1/beers";
+
+    private AdmissionProperties admissionProperties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        admissionProperties = new AdmissionProperties();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void whenRequestsAreClassifiedThenReadsListsAndWritesAreDistinguished() {
+        // Given
+        AdmissionControlFilter filter = new AdmissionControlFilter(admissionProperties, meterRegistry);
+
+        //Then
+        assertThat(filter.classify(new MockHttpServletRequest("GET", BEER_API_URL_PATH + "/Polar")), is(RequestClass.READ));
+        assertThat(filter.classify(new MockHttpServletRequest("POST", BEER_API_URL_PATH + "/lookup")), is(RequestClass.READ));
+        assertThat(filter.classify(new MockHttpServletRequest("GET", BEER_API_URL_PATH)), is(RequestClass.LIST));
+        assertThat(filter.classify(new MockHttpServletRequest("POST", BEER_API_URL_PATH)), is(RequestClass.WRITE));
+        assertThat(filter.classify(new MockHttpServletRequest("PATCH", BEER_API_URL_PATH + "/1/increment")), is(RequestClass.WRITE));
+    }
+
+    @Test
+    void whenClientExceedsItsRateThenTooManyRequestsIsReturnedWithRetryAfter() throws Exception {
+        // Given
+        admissionProperties.setClient(new AdmissionProperties.Bucket(1, 0));
+        AdmissionControlFilter filter = new AdmissionControlFilter(admissionProperties, meterRegistry);
+
+        //When
+        MockHttpServletResponse firstResponse = perform(filter, "GET", BEER_API_URL_PATH + "/Polar");
+        MockHttpServletResponse secondResponse = perform(filter, "GET", BEER_API_URL_PATH + "/Polar");
+
+        //Then
+        assertThat(firstResponse.getStatus(), is(equalTo(HttpStatus.OK.value())));
+        assertThat(secondResponse.getStatus(), is(equalTo(HttpStatus.TOO_MANY_REQUESTS.value())));
+        assertThat(secondResponse.getHeader(HttpHeaders.RETRY_AFTER), is(notNullValue()));
+        assertThat(meterRegistry.counter("beerstock.admission.rejected", "class", "read", "reason", "client-rate").count(),
+                is(equalTo(1.0)));
+    }
+
+    @Test
+    void whenConcurrencyLimitIsReachedThenWritesAreShedBeforeReads() throws Exception {
+        // Given
+        admissionProperties.setInitialLimit(2);
+        admissionProperties.setLowPriorityShare(0.5);
+        AdmissionControlFilter filter = new AdmissionControlFilter(admissionProperties, meterRegistry);
+
+        //When
+        MockHttpServletResponse[] responses = new MockHttpServletResponse[2];
+        MockHttpServletResponse outerResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", BEER_API_URL_PATH), outerResponse,
+                new MockFilterChain(new HttpServlet() {
+                }, (request, response, chain) -> {
+                    responses[0] = perform(filter, "DELETE", BEER_API_URL_PATH + "/1");
+                    responses[1] = perform(filter, "GET", BEER_API_URL_PATH + "/Polar");
+                }));
+
+        //Then
+        assertThat(responses[0].getStatus(), is(equalTo(HttpStatus.SERVICE_UNAVAILABLE.value())));
+        assertThat(responses[0].getHeader(HttpHeaders.RETRY_AFTER), is(notNullValue()));
+        assertThat(responses[1].getStatus(), is(equalTo(HttpStatus.OK.value())));
+        assertThat(outerResponse.getStatus(), is(equalTo(HttpStatus.OK.value())));
+    }
+
+    @Test
+    void whenRequestFailsWithAnExceptionThenConcurrencyLimitBacksOff() {
+        // Given
+        admissionProperties.setInitialLimit(20);
+        AdmissionControlFilter filter = new AdmissionControlFilter(admissionProperties, meterRegistry);
+
+        //When
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(
+                new MockHttpServletRequest("GET", BEER_API_URL_PATH + "/Polar"), new MockHttpServletResponse(),
+                new MockFilterChain(new HttpServlet() {
+                }, (request, response, chain) -> {
+                    throw new IllegalStateException("database gone");
+                })));
+
+        //Then
+        assertThat(meterRegistry.get("beerstock.admission.limit").gauge().value(), is(lessThan(20.0)));
+        assertThat(meterRegistry.get("beerstock.admission.in-flight").gauge().value(), is(equalTo(0.0)));
+    }
+
+    @Test
+    void whenRequestEndsWithAServerErrorStatusThenConcurrencyLimitBacksOff() throws Exception {
+        // Given
+        admissionProperties.setInitialLimit(20);
+        AdmissionControlFilter filter = new AdmissionControlFilter(admissionProperties, meterRegistry);
+
+        //When
+        for (int i = 0; i < 3; i++) {
+            filter.doFilter(new MockHttpServletRequest("GET", BEER_API_URL_PATH + "/Polar"), new MockHttpServletResponse(),
+                    new MockFilterChain(new HttpServlet() {
+                    }, (request, response, chain) ->
+                            ((HttpServletResponse) response).setStatus(HttpStatus.SERVICE_UNAVAILABLE.value())));
+        }
+
+        //Then
+        assertThat(meterRegistry.get("beerstock.admission.limit").gauge().value(), is(lessThan(20.0)));
+        assertThat(meterRegistry.get("beerstock.admission.in-flight").gauge().value(), is(equalTo(0.0)));
+    }
+
+    @Test
+    void whenPathIsOutsideTheBeerApiThenRequestIsNotFiltered() throws Exception {
+        // Given
+        admissionProperties.setClient(new AdmissionProperties.Bucket(0, 0));
+        AdmissionControlFilter filter = new AdmissionControlFilter(admissionProperties, meterRegistry);
+
+        //Then
+        assertThat(perform(filter, "GET", "/actuator/health").getStatus(), is(equalTo(HttpStatus.OK.value())));
+    }
+
+    private MockHttpServletResponse perform(AdmissionControlFilter filter, String method, String path)
+            throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(method, path), response, new MockFilterChain());
+        return response;
+    }
+}
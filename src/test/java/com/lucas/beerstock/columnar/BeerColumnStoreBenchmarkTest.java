@@ -0,0 +1,143 @@
+package com.lucas.beerstock.columnar;
+
+import com.lucas.beerstock.config.ColumnarProperties;
+import com.lucas.beerstock.dto.BeerDTO;
+import com.lucas.beerstock.dto.CatalogueStatsDTO;
+import com.lucas.beerstock.entity.Beer;
+import com.lucas.beerstock.enums.BeerType;
+import com.lucas.beerstock.mapper.BeerMapper;
+import com.lucas.beerstock.repository.BeerRepository;
+import com.lucas.beerstock.sharding.ShardRouter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * Compares list and analytics queries over a million beers on the column store against the JPA path they
+ * replace. Run with {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BeerColumnStoreBenchmarkTest {
+
+    private static final int BEERS = 1_000_000;
+    private static final int INSERT_BATCH_SIZE = 10_000;
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final int MEASURED_ITERATIONS = 5;
+    private static final BeerColumnFilter FILTER = BeerColumnFilter.builder()
+            .type(BeerType.IPA)
+            .maxFillPercent(25)
+            .build();
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private BeerColumnStore beerColumnStore;
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (long id = 1; id <= BEERS; id++) {
+            batch.add(new Object[]{id, "Beer " + id, "Brand " + id % 1_000, 100, (int) (id % 100),
+                    BeerType.values()[(int) (id % BeerType.values().length)].name()});
+            if (batch.size() == INSERT_BATCH_SIZE) {
+                jdbcTemplate.batchUpdate("INSERT INTO beer (id, name, brand, max, quantity, type) VALUES (?, ?, ?, ?, ?, ?)",
+                        batch);
+                batch.clear();
+            }
+        }
+        readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTransaction.setReadOnly(true);
+        beerColumnStore = new BeerColumnStore(beerRepository, new ShardRouter(1), transactionTemplate,
+                new ColumnarProperties());
+        beerColumnStore.load();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("TRUNCATE TABLE beer");
+    }
+
+    @Test
+    void whenAMillionBeersAreFilteredThenTheColumnStoreBeatsJpa() {
+        //When
+        List<BeerDTO> jpaBeers = readOnlyTransaction.execute(status -> beerMapper.toDTOs(beerRepository.findAll()
+                .stream()
+                .filter(this::matches)
+                .collect(Collectors.toList())));
+        long jpaNanos = measure("JPA filter", () -> readOnlyTransaction.execute(status -> beerMapper.toDTOs(
+                beerRepository.findAll().stream().filter(this::matches).collect(Collectors.toList()))));
+        long columnNanos = measure("column store filter", () -> beerColumnStore.scan(FILTER, Integer.MAX_VALUE));
+
+        //Then
+        assertThat(beerColumnStore.scan(FILTER, Integer.MAX_VALUE), is(equalTo(jpaBeers)));
+        assertThat(columnNanos, is(lessThan(jpaNanos)));
+    }
+
+    @Test
+    void whenAMillionBeersAreAggregatedThenTheColumnStoreBeatsJpa() {
+        //When
+        long jpaTotalQuantity = readOnlyTransaction.execute(status -> totalQuantity(beerRepository.findAll()));
+        long jpaNanos = measure("JPA aggregate",
+                () -> readOnlyTransaction.execute(status -> totalQuantity(beerRepository.findAll())));
+        long columnNanos = measure("column store aggregate", () -> beerColumnStore.aggregate(FILTER));
+
+        //Then
+        CatalogueStatsDTO stats = beerColumnStore.aggregate(FILTER);
+        assertThat(stats.getTotalQuantity(), is(equalTo(jpaTotalQuantity)));
+        assertThat(columnNanos, is(lessThan(jpaNanos)));
+    }
+
+    private boolean matches(Beer beer) {
+        return beer.getType() == FILTER.getType()
+                && beer.getQuantity() * 100L <= (long) beer.getMax() * FILTER.getMaxFillPercent();
+    }
+
+    private long totalQuantity(List<Beer> beers) {
+        return beers.stream().filter(this::matches).mapToLong(Beer::getQuantity).sum();
+    }
+
+    /**
+     * Returns the mean time of the measured iterations, after discarding the warm-up ones.
+     */
+    private long measure(String name, Supplier<?> query) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            query.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            query.get();
+        }
+        long meanNanos = (System.nanoTime() - start) / MEASURED_ITERATIONS;
+        System.out.printf("%s over %d beers: %.2f ms%n", name, BEERS, meanNanos / 1_000_000.0);
+        return meanNanos;
+    }
+}
@@ -0,0 +1,139 @@
+package com.lucas.beerstock.columnar;
+
+import com.lucas.beerstock.config.ColumnarProperties;
+import com.lucas.beerstock.dto.BeerDTO;
+import com.lucas.beerstock.dto.CatalogueStatsDTO;
+import com.lucas.beerstock.entity.Beer;
+import com.lucas.beerstock.enums.BeerType;
+import com.lucas.beerstock.repository.BeerRepository;
+import com.lucas.beerstock.sharding.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BeerColumnStoreTest {
+
+    private BeerRepository beerRepository;
+
+    private PlatformTransactionManager transactionManager;
+
+    private BeerColumnStore beerColumnStore;
+
+    @BeforeEach
+    void setUp() {
+        beerRepository = mock(BeerRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        ColumnarProperties columnarProperties = new ColumnarProperties();
+        columnarProperties.setLoadChunkSize(2);
+        beerColumnStore = new BeerColumnStore(beerRepository, new ShardRouter(1),
+                new TransactionTemplate(transactionManager), columnarProperties);
+    }
+
+    @Test
+    void whenCatalogueIsLoadedThenScansFilterByTypeBrandAndFill() {
+        // Given
+        givenCatalogue(new Beer(1L, "Brahma", "Ambev", 50, 10, BeerType.LAGER),
+                new Beer(2L, "Goose Island", "Ambev", 10, 10, BeerType.IPA),
+                new Beer(3L, "Guinness", "Diageo", 20, 5, BeerType.STOUT));
+
+        //When
+        beerColumnStore.load();
+
+        //Then
+        assertThat(ids(beerColumnStore.scan(new BeerColumnFilter(), 10)), contains(1L, 2L, 3L));
+        assertThat(ids(beerColumnStore.scan(BeerColumnFilter.builder().brand("Ambev").build(), 10)), contains(1L, 2L));
+        assertThat(ids(beerColumnStore.scan(BeerColumnFilter.builder().maxFillPercent(25).build(), 10)), contains(1L, 3L));
+        assertThat(ids(beerColumnStore.scan(BeerColumnFilter.builder().type(BeerType.IPA).build(), 10)), contains(2L));
+        assertThat(beerColumnStore.scan(BeerColumnFilter.builder().brand("Heineken").build(), 10), hasSize(0));
+        assertThat(beerColumnStore.scan(new BeerColumnFilter(), 2), hasSize(2));
+    }
+
+    @Test
+    void whenCatalogueIsAggregatedThenTotalsArePerType() {
+        // Given
+        givenCatalogue(new Beer(1L, "Brahma", "Ambev", 50, 10, BeerType.LAGER),
+                new Beer(2L, "Skol", "Ambev", 30, 20, BeerType.LAGER),
+                new Beer(3L, "Guinness", "Diageo", 20, 5, BeerType.STOUT));
+        beerColumnStore.load();
+
+        //When
+        CatalogueStatsDTO stats = beerColumnStore.aggregate(new BeerColumnFilter());
+
+        //Then
+        assertThat(stats.getBeers(), is(equalTo(3L)));
+        assertThat(stats.getTotalQuantity(), is(equalTo(35L)));
+        assertThat(stats.getTotalCapacity(), is(equalTo(100L)));
+        assertThat(stats.getByType(), hasSize(2));
+        assertThat(stats.getByType().get(0).getType(), is(BeerType.LAGER));
+        assertThat(stats.getByType().get(0).getTotalQuantity(), is(equalTo(30L)));
+    }
+
+    @Test
+    void whenBeersAreWrittenThenStoreStaysSortedById() {
+        // Given
+        givenCatalogue(new Beer(2L, "Skol", "Ambev", 30, 20, BeerType.LAGER));
+        beerColumnStore.load();
+
+        //When
+        beerColumnStore.put(new Beer(5L, "Guinness", "Diageo", 20, 5, BeerType.STOUT));
+        beerColumnStore.put(new Beer(1L, "Brahma", "Ambev", 50, 10, BeerType.LAGER));
+        beerColumnStore.adjustQuantity(5L, 3);
+        beerColumnStore.remove(2L);
+
+        //Then
+        List<BeerDTO> beers = beerColumnStore.scan(new BeerColumnFilter(), 10);
+        assertThat(ids(beers), contains(1L, 5L));
+        assertThat(beers.get(1).getQuantity(), is(equalTo(8)));
+        assertThat(beerColumnStore.size(), is(equalTo(2)));
+    }
+
+    @Test
+    void whenCatalogueIsLoadedThenItIsReadFromThePrimaryAndScannedIntoFullDTOs() {
+        // Given
+        givenCatalogue(new Beer(1L, "Guinness", "Diageo", 20, 5, BeerType.STOUT));
+
+        //When
+        beerColumnStore.load();
+
+        //Then
+        verify(transactionManager, atLeastOnce()).getTransaction(argThat(definition -> !definition.isReadOnly()));
+        verify(transactionManager, never()).getTransaction(argThat(TransactionDefinition::isReadOnly));
+        List<BeerDTO> beers = beerColumnStore.scan(new BeerColumnFilter(), Integer.MAX_VALUE);
+        assertThat(beers, contains(new BeerDTO(1L, "Guinness", "Diageo", 20, 5, BeerType.STOUT)));
+    }
+
+    private void givenCatalogue(Beer... beers) {
+        when(beerRepository.findByIdGreaterThanOrderByIdAsc(any(), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+        for (int from = 0; from < beers.length; from += 2) {
+            long afterId = from == 0 ? 0L : beers[from - 1].getId();
+            when(beerRepository.findByIdGreaterThanOrderByIdAsc(eq(afterId), any(Pageable.class)))
+                    .thenReturn(List.of(beers).subList(from, Math.min(from + 2, beers.length)));
+        }
+    }
+
+    private List<Long> ids(List<BeerDTO> beers) {
+        return beers.stream().map(BeerDTO::getId).collect(Collectors.toList());
+    }
+}
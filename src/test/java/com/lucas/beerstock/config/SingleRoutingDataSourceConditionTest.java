@@ -0,0 +1,37 @@
+package com.lucas.beerstock.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasToString;
+import static org.hamcrest.Matchers.notNullValue;
+
+public class SingleRoutingDataSourceConditionTest {
+
+    @Test
+    void whenShardsAndReplicasAreBothConfiguredThenStartupFailsWithAClearMessage() {
+        // Given
+        ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+                .withUserConfiguration(ShardingConfig.class, DataSourceRoutingConfig.class)
+                .withPropertyValues(
+                        "beerstock.sharding.shards[0].url=jdbc:h2:mem:shard0",
+                        "beerstock.datasource.replicas[0].url=jdbc:h2:mem:replica0");
+
+        //When
+        contextRunner.run(context -> {
+            //Then
+            assertThat(context.getStartupFailure(), notNullValue());
+            assertThat(rootCause(context.getStartupFailure()), hasToString(containsString(
+                    "beerstock.sharding.shards and beerstock.datasource.replicas cannot both be set")));
+        });
+    }
+
+    private Throwable rootCause(Throwable throwable) {
+        while (throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        return throwable;
+    }
+}
@@ -2,11 +2,16 @@ package com.lucas.beerstock.controller;
 
 import com.lucas.beerstock.builder.BeerDTOBuilder;
 import com.lucas.beerstock.dto.BeerDTO;
+import com.lucas.beerstock.dto.BeerLookupDTO;
+import com.lucas.beerstock.dto.BeerLookupResultDTO;
 import com.lucas.beerstock.dto.QuantityDTO;
 import com.lucas.beerstock.exception.BeerAlreadyRegisteredException;
 import com.lucas.beerstock.exception.BeerNotFoundException;
 import com.lucas.beerstock.exception.BeerStockExceededException;
-import com.lucas.beerstock.service.BeerService;
+import com.lucas.beerstock.exception.DatabaseUnavailableException;
+import com.lucas.beerstock.journal.JournaledStockService;
+import com.lucas.beerstock.resilience.ReadResult;
+import com.lucas.beerstock.service.ResilientBeerService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,6 +20,7 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MockMvcBuilder;
@@ -23,12 +29,14 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.servlet.view.json.MappingJackson2JsonView;
 
+import java.util.Arrays;
 import java.util.Collections;
 
 import static com.lucas.beerstock.utils.JsonConvertionUtils.asJsonString;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 
@@ -39,11 +47,15 @@ public class BeerControllerTest {
     private static final long INVALID_BEER_ID = 2L;
     private static final String BEER_API_SUBPATH_INCREMENT_URL = "/increment";
     private static final String BEER_API_SUBPATH_DECREMENT_URL = "/decrement";
+    private static final String BEER_API_SUBPATH_LOOKUP_URL = "/lookup";
 
     private MockMvc mockMvc;
 
     @Mock
-    private BeerService beerService;
+    private ResilientBeerService resilientBeerService;
+
+    @Mock
+    private JournaledStockService journaledStockService;
 
     @InjectMocks
     private BeerController beerController;
@@ -62,7 +74,7 @@ public class BeerControllerTest {
         BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
 
         // When
-        when(beerService.createBeer(beerDTO)).thenReturn(beerDTO);
+        when(resilientBeerService.createBeer(beerDTO)).thenReturn(beerDTO);
 
         //Then
         mockMvc.perform(post(BEER_API_URL_PATH)
@@ -93,7 +105,7 @@ public class BeerControllerTest {
         BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
 
         //When
-        when(beerService.findByName(beerDTO.getName())).thenReturn(beerDTO);
+        when(resilientBeerService.findByName(beerDTO.getName())).thenReturn(ReadResult.fresh(beerDTO));
 
         //Then
         mockMvc.perform(get(BEER_API_URL_PATH + "/" + beerDTO.getName())
@@ -110,7 +122,7 @@ public class BeerControllerTest {
         BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
 
         //When
-        when(beerService.findByName(beerDTO.getName())).thenThrow(BeerNotFoundException.class);
+        when(resilientBeerService.findByName(beerDTO.getName())).thenThrow(BeerNotFoundException.class);
 
         //Then
         mockMvc.perform(get(BEER_API_URL_PATH + "/" + beerDTO.getName())
@@ -118,13 +130,45 @@ public class BeerControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void whenGetIsServedFromLastKnownGoodCopyThenStaleWarningIsReturned() throws Exception {
+        // Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        //When
+        when(resilientBeerService.findByName(beerDTO.getName())).thenReturn(ReadResult.fresh(beerDTO).asStale());
+
+        //Then
+        mockMvc.perform(get(BEER_API_URL_PATH + "/" + beerDTO.getName())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.WARNING, "110 - \"Response is Stale\""))
+                .andExpect(header().exists(HttpHeaders.AGE))
+                .andExpect(jsonPath("$.name", is(beerDTO.getName())));
+    }
+
+    @Test
+    void whenDatabaseIsUnavailableThenServiceUnavailableStatusIsReturned() throws Exception {
+        // Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        //When
+        when(resilientBeerService.createBeer(beerDTO)).thenThrow(DatabaseUnavailableException.class);
+
+        //Then
+        mockMvc.perform(post(BEER_API_URL_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(beerDTO)))
+                .andExpect(status().isServiceUnavailable());
+    }
+
     @Test
     void whenGetListIsCalledWithValidNameThenOkStatusIsReturned() throws Exception {
         // Given
         BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
 
         //When
-        when(beerService.listAll()).thenReturn(Collections.singletonList(beerDTO));
+        when(resilientBeerService.listAll()).thenReturn(ReadResult.fresh(Collections.singletonList(beerDTO)));
 
         //Then
         mockMvc.perform(get(BEER_API_URL_PATH)
@@ -141,7 +185,7 @@ public class BeerControllerTest {
         BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
 
         //When
-        doNothing().when(beerService).deleteById(beerDTO.getId());
+        doNothing().when(resilientBeerService).deleteById(beerDTO.getId());
 
         //Then
         mockMvc.perform(delete(BEER_API_URL_PATH + "/" + beerDTO.getId())
@@ -152,7 +196,7 @@ public class BeerControllerTest {
     @Test
     void whenDeleteIsCalledWithInvalidIdThenNotFoundStatusIsReturned() throws Exception {
         //When
-        doThrow(BeerNotFoundException.class).when(beerService).deleteById(INVALID_BEER_ID);
+        doThrow(BeerNotFoundException.class).when(resilientBeerService).deleteById(INVALID_BEER_ID);
 
         //Then
         mockMvc.perform(delete(BEER_API_URL_PATH + "/" + INVALID_BEER_ID)
@@ -171,7 +215,7 @@ public class BeerControllerTest {
         beerDTO.setQuantity(beerDTO.getQuantity() + quantityDTO.getQuantity());
 
         // When
-        when(beerService.increment(VALID_BEER_ID, quantityDTO.getQuantity())).thenReturn(beerDTO);
+        when(resilientBeerService.increment(VALID_BEER_ID, quantityDTO.getQuantity())).thenReturn(beerDTO);
 
         //Then
         mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
@@ -195,7 +239,7 @@ public class BeerControllerTest {
         beerDTO.setQuantity(beerDTO.getQuantity() + quantityDTO.getQuantity());
 
         // When
-        when(beerService.increment(VALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(BeerStockExceededException.class);
+        when(resilientBeerService.increment(VALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(BeerStockExceededException.class);
 
         //Then
         mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
@@ -215,7 +259,7 @@ public class BeerControllerTest {
         beerDTO.setQuantity(beerDTO.getQuantity() + quantityDTO.getQuantity());
 
         // When
-        when(beerService.increment(INVALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(BeerNotFoundException.class);
+        when(resilientBeerService.increment(INVALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(BeerNotFoundException.class);
 
         //Then
         mockMvc.perform(patch(BEER_API_URL_PATH + "/" + INVALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
@@ -224,5 +268,50 @@ public class BeerControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void whenPostLookupIsCalledThenFoundAndMissingBeersAreReturned() throws Exception {
+        // Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerLookupDTO beerLookupDTO = BeerLookupDTO.builder()
+                .names(Arrays.asList(beerDTO.getName(), "Unknown"))
+                .build();
+        BeerLookupResultDTO beerLookupResultDTO = BeerLookupResultDTO.builder()
+                .found(Collections.singletonList(beerDTO))
+                .missingNames(Collections.singletonList("Unknown"))
+                .build();
+
+        // When
+        when(resilientBeerService.lookup(beerLookupDTO)).thenReturn(beerLookupResultDTO);
+
+        //Then
+        mockMvc.perform(post(BEER_API_URL_PATH + BEER_API_SUBPATH_LOOKUP_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(beerLookupDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.found[0].name", is(beerDTO.getName())))
+                .andExpect(jsonPath("$.missingNames[0]", is("Unknown")));
+    }
+
+    @Test
+    void whenPatchIsCalledToIncrementWithJournalEnabledThenJournaledIncrementIsReturned() throws Exception {
+        // Given
+        QuantityDTO quantityDTO = QuantityDTO.builder()
+                .quantity(10)
+                .build();
+
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        beerDTO.setQuantity(beerDTO.getQuantity() + quantityDTO.getQuantity());
+
+        // When
+        when(journaledStockService.isEnabled()).thenReturn(true);
+        when(journaledStockService.increment(VALID_BEER_ID, quantityDTO.getQuantity())).thenReturn(beerDTO);
 
+        //Then
+        mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(quantityDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity", is(beerDTO.getQuantity())));
+        verify(resilientBeerService, never()).increment(any(), anyInt());
+    }
 }
@@ -0,0 +1,95 @@
+package com.lucas.beerstock.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletResponse;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+
+public class ReadYourWritesFilterTest {
+    private static final String BEER_API_URL_PATH = "/api/v1/beers";
+
+    @Test
+    void whenRequestCarriesALastWriteCookieThenItsClientIsBoundForTheRequest() throws Exception {
+        // Given
+        ReadYourWritesTracker readYourWritesTracker = new ReadYourWritesTracker(1_000, () -> 10_000L);
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(readYourWritesTracker);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", BEER_API_URL_PATH + "/Polar");
+        request.setCookies(new Cookie(ReadYourWritesFilter.LAST_WRITE_COOKIE, "9500"));
+
+        //When
+        boolean[] withinWindow = new boolean[1];
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+        }, (servletRequest, servletResponse, chain) -> withinWindow[0] = readYourWritesTracker.isWithinWriteWindow()));
+
+        //Then
+        assertThat(withinWindow[0], is(true));
+        assertThat(ReadYourWritesTracker.currentClient(), is(nullValue()));
+    }
+
+    @Test
+    void whenRequestCommitsAWriteThenTheLastWriteCookieIsSet() throws Exception {
+        // Given
+        ReadYourWritesTracker readYourWritesTracker = new ReadYourWritesTracker(1_000, () -> 10_000L);
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(readYourWritesTracker);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //When
+        filter.doFilter(new MockHttpServletRequest("POST", BEER_API_URL_PATH), response, new MockFilterChain(
+                new HttpServlet() {
+                }, (servletRequest, servletResponse, chain) -> readYourWritesTracker.recordWrite()));
+
+        //Then
+        assertThat(response.getHeader(HttpHeaders.SET_COOKIE),
+                startsWith(ReadYourWritesFilter.LAST_WRITE_COOKIE + "=10000;"));
+        assertThat(response.getStatus(), is(equalTo(200)));
+    }
+
+    @Test
+    void whenResponseAlreadySetsACookieThenTheLastWriteCookieIsAddedAlongsideIt() throws Exception {
+        // Given
+        ReadYourWritesTracker readYourWritesTracker = new ReadYourWritesTracker(1_000, () -> 10_000L);
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(readYourWritesTracker);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //When
+        filter.doFilter(new MockHttpServletRequest("POST", BEER_API_URL_PATH), response, new MockFilterChain(
+                new HttpServlet() {
+                }, (servletRequest, servletResponse, chain) -> {
+                    ((HttpServletResponse) servletResponse).addHeader(HttpHeaders.SET_COOKIE, "session=abc");
+                    readYourWritesTracker.recordWrite();
+                }));
+
+        //Then
+        assertThat(response.getHeaders(HttpHeaders.SET_COOKIE), contains(equalTo("session=abc"),
+                startsWith(ReadYourWritesFilter.LAST_WRITE_COOKIE + "=10000;")));
+    }
+
+    @Test
+    void whenLastWriteCookieIsInTheFutureThenItIsOutsideTheWindow() throws Exception {
+        // Given
+        ReadYourWritesTracker readYourWritesTracker = new ReadYourWritesTracker(1_000, () -> 10_000L);
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(readYourWritesTracker);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", BEER_API_URL_PATH + "/Polar");
+        request.setCookies(new Cookie(ReadYourWritesFilter.LAST_WRITE_COOKIE, String.valueOf(Long.MAX_VALUE)));
+
+        //When
+        boolean[] withinWindow = new boolean[1];
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+        }, (servletRequest, servletResponse, chain) -> withinWindow[0] = readYourWritesTracker.isWithinWriteWindow()));
+
+        //Then
+        assertThat(withinWindow[0], is(false));
+    }
+}
@@ -0,0 +1,166 @@
+package com.lucas.beerstock.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+public class ReplicaRoutingDataSourceTest {
+    private static final String SELECT_NODE = "SELECT name FROM node";
+
+    private DataSource primary;
+
+    private DataSource firstReplica;
+
+    private DataSource secondReplica;
+
+    @BeforeEach
+    void setUp() {
+        primary = stubNode("primary");
+        firstReplica = stubNode("replica-a");
+        secondReplica = stubNode("replica-b");
+    }
+
+    @Test
+    void whenTransactionIsReadOnlyThenReplicasAreUsedInTurn() {
+        // Given
+        TransactionTemplate readOnlyTemplate = transactionTemplate(new ReadYourWritesTracker(0), true);
+        JdbcTemplate jdbcTemplate = jdbcTemplateOf(readOnlyTemplate);
+
+        //When
+        Set<String> nodes = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            nodes.add(readOnlyTemplate.execute(status -> jdbcTemplate.queryForObject(SELECT_NODE, String.class)));
+        }
+
+        //Then
+        assertThat(nodes, containsInAnyOrder("replica-a", "replica-b"));
+    }
+
+    @Test
+    void whenTransactionIsReadWriteThenPrimaryIsUsed() {
+        // Given
+        TransactionTemplate readWriteTemplate = transactionTemplate(new ReadYourWritesTracker(0), false);
+        JdbcTemplate jdbcTemplate = jdbcTemplateOf(readWriteTemplate);
+
+        //Then
+        assertThat(readWriteTemplate.execute(status -> jdbcTemplate.queryForObject(SELECT_NODE, String.class)),
+                is(equalTo("primary")));
+    }
+
+    @Test
+    void whenReadFollowsACommittedWriteThenPrimaryIsUsedWithinTheWindow() {
+        // Given
+        ReadYourWritesTracker readYourWritesTracker = new ReadYourWritesTracker(60_000);
+        TransactionTemplate readWriteTemplate = transactionTemplate(readYourWritesTracker, false);
+        JdbcTemplate jdbcTemplate = jdbcTemplateOf(readWriteTemplate);
+        TransactionTemplate readOnlyTemplate = new TransactionTemplate(readWriteTemplate.getTransactionManager());
+        readOnlyTemplate.setReadOnly(true);
+        List<Long> reportedWrites = new ArrayList<>();
+        ReadYourWritesTracker.Client client = new ReadYourWritesTracker.Client(0, reportedWrites::add);
+
+        //When
+        String beforeWrite;
+        String afterWrite;
+        try (ThreadLocalScope scope = ReadYourWritesTracker.bind(client)) {
+            beforeWrite = readOnlyTemplate.execute(status -> jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+            readWriteTemplate.executeWithoutResult(status -> jdbcTemplate.update("UPDATE node SET name = name"));
+            afterWrite = readOnlyTemplate.execute(status -> jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+        }
+
+        //Then
+        assertThat(beforeWrite, is(equalTo("replica-a")));
+        assertThat(afterWrite, is(equalTo("primary")));
+        assertThat(reportedWrites, hasSize(1));
+    }
+
+    @Test
+    void whenAnotherClientWroteThenReadsStillGoToTheReplicas() {
+        // Given
+        ReadYourWritesTracker readYourWritesTracker = new ReadYourWritesTracker(60_000);
+        TransactionTemplate readWriteTemplate = transactionTemplate(readYourWritesTracker, false);
+        JdbcTemplate jdbcTemplate = jdbcTemplateOf(readWriteTemplate);
+        TransactionTemplate readOnlyTemplate = new TransactionTemplate(readWriteTemplate.getTransactionManager());
+        readOnlyTemplate.setReadOnly(true);
+
+        //When
+        try (ThreadLocalScope scope = ReadYourWritesTracker.bind(
+                new ReadYourWritesTracker.Client(0, writeMillis -> { }))) {
+            readWriteTemplate.executeWithoutResult(status -> jdbcTemplate.update("UPDATE node SET name = name"));
+        }
+        String otherClientRead;
+        try (ThreadLocalScope scope = ReadYourWritesTracker.bind(
+                new ReadYourWritesTracker.Client(0, writeMillis -> { }))) {
+            otherClientRead = readOnlyTemplate.execute(status -> jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+        }
+        String unboundRead = readOnlyTemplate.execute(status -> jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+
+        //Then
+        assertThat(otherClientRead, is(equalTo("replica-a")));
+        assertThat(unboundRead, is(equalTo("replica-b")));
+    }
+
+    @Test
+    void whenClientReportsAWriteOlderThanTheWindowThenReplicasAreUsed() {
+        // Given
+        ReadYourWritesTracker readYourWritesTracker = new ReadYourWritesTracker(1_000, () -> 10_000L);
+        TransactionTemplate readOnlyTemplate = transactionTemplate(readYourWritesTracker, true);
+        JdbcTemplate jdbcTemplate = jdbcTemplateOf(readOnlyTemplate);
+
+        //When
+        String recentWriterRead;
+        String oldWriterRead;
+        try (ThreadLocalScope scope = ReadYourWritesTracker.bind(
+                new ReadYourWritesTracker.Client(9_500, writeMillis -> { }))) {
+            recentWriterRead = readOnlyTemplate.execute(status -> jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+        }
+        try (ThreadLocalScope scope = ReadYourWritesTracker.bind(
+                new ReadYourWritesTracker.Client(8_000, writeMillis -> { }))) {
+            oldWriterRead = readOnlyTemplate.execute(status -> jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+        }
+
+        //Then
+        assertThat(recentWriterRead, is(equalTo("primary")));
+        assertThat(oldWriterRead, is(equalTo("replica-a")));
+    }
+
+    private TransactionTemplate transactionTemplate(ReadYourWritesTracker readYourWritesTracker, boolean readOnly) {
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primary,
+                Arrays.asList(firstReplica, secondReplica), readYourWritesTracker);
+        routingDataSource.afterPropertiesSet();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(
+                new DataSourceTransactionManager(new LazyConnectionDataSourceProxy(routingDataSource)));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate;
+    }
+
+    private JdbcTemplate jdbcTemplateOf(TransactionTemplate transactionTemplate) {
+        return new JdbcTemplate(((DataSourceTransactionManager) transactionTemplate.getTransactionManager()).getDataSource());
+    }
+
+    private DataSource stubNode(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+        jdbcTemplate.update("DELETE FROM node");
+        jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,165 @@
+package com.lucas.beerstock.grpc;
+
+import com.lucas.beerstock.columnar.BeerColumnStore;
+import com.lucas.beerstock.grpc.proto.BeerStockGrpc;
+import com.lucas.beerstock.grpc.proto.IncrementRequest;
+import com.lucas.beerstock.grpc.proto.IncrementResult;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * Compares POS-style increments sent as one unary call each against the same increments pushed over a single
+ * {@code StreamIncrements} call, over an in-process channel against the H2 catalogue. Run with
+ * {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {"beerstock.grpc.enabled=false", "spring.jpa.show-sql=false"})
+public class BeerStockGrpcBenchmarkTest {
+
+    private static final int BEERS = 100;
+    private static final int INCREMENTS = 5_000;
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final int MEASURED_ITERATIONS = 5;
+
+    @Autowired
+    private BeerStockGrpcService beerStockGrpcService;
+
+    @Autowired
+    private BeerColumnStore beerColumnStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Long> beerIds;
+
+    private Server server;
+
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        for (int i = 0; i < BEERS; i++) {
+            jdbcTemplate.update("INSERT INTO beer (name, brand, max, quantity, type) VALUES (?, ?, ?, ?, ?)",
+                    "Beer " + i, "Brand " + i, Integer.MAX_VALUE, 0, "LAGER");
+        }
+        beerIds = jdbcTemplate.queryForList("SELECT id FROM beer ORDER BY id", Long.class);
+        beerColumnStore.load();
+
+        String serverName = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(serverName)
+                .addService(beerStockGrpcService)
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(serverName).build();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        jdbcTemplate.update("DELETE FROM beer");
+        // The rows were deleted behind the service's back, so the column store has to be rebuilt.
+        beerColumnStore.load();
+    }
+
+    @Test
+    void whenIncrementsAreStreamedThenTheyBeatOneUnaryCallEach() {
+        //When
+        long unaryNanos = measure("unary increments", this::incrementUnary);
+        long streamingNanos = measure("streamed increments", this::incrementStreamed);
+
+        //Then
+        long expectedTotal = 2L * (WARMUP_ITERATIONS + MEASURED_ITERATIONS) * INCREMENTS;
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(quantity) FROM beer", Long.class), is(equalTo(expectedTotal)));
+        assertThat(streamingNanos, is(lessThan(unaryNanos)));
+    }
+
+    private int incrementUnary() {
+        BeerStockGrpc.BeerStockBlockingStub stub = BeerStockGrpc.newBlockingStub(channel);
+        int applied = 0;
+        for (int i = 0; i < INCREMENTS; i++) {
+            stub.increment(request(i));
+            applied++;
+        }
+        return applied;
+    }
+
+    private int incrementStreamed() {
+        AtomicInteger applied = new AtomicInteger();
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+        StreamObserver<IncrementRequest> requests = BeerStockGrpc.newStub(channel)
+                .streamIncrements(new StreamObserver<IncrementResult>() {
+                    @Override
+                    public void onNext(IncrementResult result) {
+                        if (result.hasBeer()) {
+                            applied.incrementAndGet();
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                        completed.completeExceptionally(throwable);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        completed.complete(null);
+                    }
+                });
+        for (int i = 0; i < INCREMENTS; i++) {
+            requests.onNext(request(i));
+        }
+        requests.onCompleted();
+        completed.join();
+        return applied.get();
+    }
+
+    private IncrementRequest request(int i) {
+        return IncrementRequest.newBuilder()
+                .setCorrelationId(i)
+                .setId(beerIds.get(i % BEERS))
+                .setQuantity(1)
+                .build();
+    }
+
+    /**
+     * Returns the mean time of the measured iterations, after discarding the warm-up ones.
+     */
+    private long measure(String name, IntSupplier increments) {
+        List<Integer> applied = new ArrayList<>();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            applied.add(increments.getAsInt());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            applied.add(increments.getAsInt());
+        }
+        long meanNanos = (System.nanoTime() - start) / MEASURED_ITERATIONS;
+        System.out.printf("%s, %d per iteration: %.2f ms (%.0f increments/s)%n", name, INCREMENTS, meanNanos / 1_000_000.0,
+                INCREMENTS * 1_000_000_000.0 / meanNanos);
+        applied.forEach(count -> assertThat(count, is(equalTo(INCREMENTS))));
+        return meanNanos;
+    }
+}
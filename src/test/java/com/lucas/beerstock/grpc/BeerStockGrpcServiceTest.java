@@ -0,0 +1,275 @@
+package com.lucas.beerstock.grpc;
+
+import com.lucas.beerstock.builder.BeerDTOBuilder;
+import com.lucas.beerstock.config.GrpcProperties;
+import com.lucas.beerstock.dto.BeerDTO;
+import com.lucas.beerstock.exception.BeerNotFoundException;
+import com.lucas.beerstock.exception.BeerStockExceededException;
+import com.lucas.beerstock.grpc.proto.BeerStockGrpc;
+import com.lucas.beerstock.grpc.proto.FindByNameRequest;
+import com.lucas.beerstock.grpc.proto.IncrementError;
+import com.lucas.beerstock.grpc.proto.IncrementRequest;
+import com.lucas.beerstock.grpc.proto.IncrementResult;
+import com.lucas.beerstock.journal.JournaledStockService;
+import com.lucas.beerstock.service.BeerService;
+import com.lucas.beerstock.sharding.ShardRouter;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.Validation;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BeerStockGrpcServiceTest {
+    private static final long VALID_BEER_ID = 1L;
+    private static final long INVALID_BEER_ID = 2L;
+
+    @Mock
+    private BeerService beerService;
+
+    @Mock
+    private JournaledStockService journaledStockService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BeerStockGrpcService beerStockGrpcService;
+
+    private Server server;
+
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        GrpcProperties grpcProperties = new GrpcProperties();
+        grpcProperties.setBatchSize(2);
+        beerStockGrpcService = new BeerStockGrpcService(beerService, journaledStockService, new ShardRouter(1),
+                new TransactionTemplate(transactionManager), Validation.buildDefaultValidatorFactory().getValidator(), grpcProperties);
+
+        String serverName = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(serverName)
+                .directExecutor()
+                .addService(beerStockGrpcService)
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(serverName).directExecutor().build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+        beerStockGrpcService.shutdown();
+    }
+
+    @Test
+    void whenFindByNameIsCalledWithValidNameThenBeerIsReturned() throws BeerNotFoundException {
+        // Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        // When
+        when(beerService.findByName(beerDTO.getName())).thenReturn(beerDTO);
+
+        // Then
+        com.lucas.beerstock.grpc.proto.Beer foundBeer = BeerStockGrpc.newBlockingStub(channel)
+                .findByName(FindByNameRequest.newBuilder().setName(beerDTO.getName()).build());
+        assertThat(BeerGrpcMapper.toDTO(foundBeer), is(equalTo(beerDTO)));
+    }
+
+    @Test
+    void whenFindByNameIsCalledWithoutRegisteredNameThenNotFoundStatusIsReturned() throws BeerNotFoundException {
+        // When
+        when(beerService.findByName("Unknown")).thenThrow(new BeerNotFoundException("Unknown"));
+
+        // Then
+        StatusRuntimeException exception = assertThrows(StatusRuntimeException.class, () ->
+                BeerStockGrpc.newBlockingStub(channel)
+                        .findByName(FindByNameRequest.newBuilder().setName("Unknown").build()));
+        assertThat(exception.getStatus().getCode(), is(equalTo(Status.Code.NOT_FOUND)));
+    }
+
+    @Test
+    void whenIncrementsAreStreamedThenOneResultPerRequestIsReturnedInOrder() throws Exception {
+        // Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        beerDTO.setQuantity(beerDTO.getQuantity() + 10);
+
+        // When
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(beerService.increment(VALID_BEER_ID, 10)).thenReturn(beerDTO);
+        when(beerService.increment(INVALID_BEER_ID, 10)).thenThrow(new BeerNotFoundException(INVALID_BEER_ID));
+
+        List<IncrementResult> results = new CopyOnWriteArrayList<>();
+        CountDownLatch completed = new CountDownLatch(1);
+        StreamObserver<IncrementRequest> requests = BeerStockGrpc.newStub(channel)
+                .streamIncrements(new StreamObserver<>() {
+                    @Override
+                    public void onNext(IncrementResult result) {
+                        results.add(result);
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                        completed.countDown();
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        completed.countDown();
+                    }
+                });
+        requests.onNext(incrementRequest(1, VALID_BEER_ID, 10));
+        requests.onNext(incrementRequest(2, INVALID_BEER_ID, 10));
+        requests.onNext(incrementRequest(3, VALID_BEER_ID, 500));
+        requests.onCompleted();
+
+        // Then
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertThat(results, hasSize(3));
+        assertThat(results.get(0).getCorrelationId(), is(equalTo(1L)));
+        assertThat(results.get(0).getBeer().getQuantity(), is(equalTo(beerDTO.getQuantity())));
+        assertThat(results.get(1).getCorrelationId(), is(equalTo(2L)));
+        assertThat(results.get(1).getError().getCode(), is(equalTo(IncrementError.Code.NOT_FOUND)));
+        assertThat(results.get(2).getCorrelationId(), is(equalTo(3L)));
+        assertThat(results.get(2).getError().getCode(), is(equalTo(IncrementError.Code.INVALID_ARGUMENT)));
+        verify(transactionManager, times(2)).getTransaction(any());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void whenJournalIsEnabledThenStreamedIncrementsGoThroughTheJournal() throws Exception {
+        // Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        beerDTO.setQuantity(beerDTO.getQuantity() + 10);
+
+        // When
+        when(journaledStockService.isEnabled()).thenReturn(true);
+        when(journaledStockService.submitIncrement(VALID_BEER_ID, 10)).thenReturn(CompletableFuture.completedFuture(beerDTO));
+        when(journaledStockService.submitIncrement(VALID_BEER_ID, 40))
+                .thenThrow(new BeerStockExceededException(VALID_BEER_ID, 40));
+
+        List<IncrementResult> results = new CopyOnWriteArrayList<>();
+        CountDownLatch completed = new CountDownLatch(1);
+        StreamObserver<IncrementRequest> requests = BeerStockGrpc.newStub(channel)
+                .streamIncrements(new StreamObserver<>() {
+                    @Override
+                    public void onNext(IncrementResult result) {
+                        results.add(result);
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                        completed.countDown();
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        completed.countDown();
+                    }
+                });
+        requests.onNext(incrementRequest(1, VALID_BEER_ID, 10));
+        requests.onNext(incrementRequest(2, VALID_BEER_ID, 40));
+        requests.onCompleted();
+
+        // Then
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertThat(results, hasSize(2));
+        assertThat(results.get(0).getBeer().getQuantity(), is(equalTo(beerDTO.getQuantity())));
+        assertThat(results.get(1).getError().getCode(), is(equalTo(IncrementError.Code.STOCK_EXCEEDED)));
+        verify(beerService, never()).increment(any(), anyInt());
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @Test
+    void whenClientStopsReadingResultsThenServerStopsAcceptingIncrements() throws Exception {
+        // Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(beerService.increment(VALID_BEER_ID, 1)).thenReturn(beerDTO);
+
+        List<IncrementResult> results = new CopyOnWriteArrayList<>();
+        CountDownLatch completed = new CountDownLatch(1);
+        AtomicReference<ClientCallStreamObserver<IncrementRequest>> call = new AtomicReference<>();
+        StreamObserver<IncrementRequest> requests = BeerStockGrpc.newStub(channel)
+                .streamIncrements(new ClientResponseObserver<IncrementRequest, IncrementResult>() {
+                    @Override
+                    public void beforeStart(ClientCallStreamObserver<IncrementRequest> requestStream) {
+                        requestStream.disableAutoInboundFlowControl();
+                        call.set(requestStream);
+                    }
+
+                    @Override
+                    public void onNext(IncrementResult result) {
+                        results.add(result);
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                        completed.countDown();
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        completed.countDown();
+                    }
+                });
+
+        // When
+        for (int correlationId = 1; correlationId <= 20; correlationId++) {
+            requests.onNext(incrementRequest(correlationId, VALID_BEER_ID, 1));
+        }
+        Thread.sleep(200);
+
+        // Then
+        // two batches of inbound window plus whatever the transport buffers before isReady turns false
+        verify(beerService, atMost(8)).increment(VALID_BEER_ID, 1);
+        call.get().request(20);
+        requests.onCompleted();
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertThat(results, hasSize(20));
+        assertThat(results.get(19).getCorrelationId(), is(equalTo(20L)));
+    }
+
+    private IncrementRequest incrementRequest(long correlationId, long id, int quantity) {
+        return IncrementRequest.newBuilder()
+                .setCorrelationId(correlationId)
+                .setId(id)
+                .setQuantity(quantity)
+                .build();
+    }
+}
@@ -0,0 +1,279 @@
+package com.lucas.beerstock.journal;
+
+import com.lucas.beerstock.builder.BeerDTOBuilder;
+import com.lucas.beerstock.columnar.BeerColumnStore;
+import com.lucas.beerstock.config.JournalProperties;
+import com.lucas.beerstock.dto.BeerDTO;
+import com.lucas.beerstock.entity.Beer;
+import com.lucas.beerstock.exception.BeerNotFoundException;
+import com.lucas.beerstock.exception.BeerStockExceededException;
+import com.lucas.beerstock.exception.DatabaseUnavailableException;
+import com.lucas.beerstock.mapper.BeerMapper;
+import com.lucas.beerstock.repository.BeerRepository;
+import com.lucas.beerstock.sharding.ShardRouter;
+import com.lucas.beerstock.snapshot.BeerSnapshotService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class JournaledStockServiceTest {
+    private static final long INVALID_BEER_ID = 2L;
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private BeerColumnStore beerColumnStore;
+
+    @Mock
+    private BeerSnapshotService beerSnapshotService;
+
+    private JournalProperties journalProperties;
+
+    private BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    private JournaledStockService journaledStockService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        journalProperties = new JournalProperties();
+        journalProperties.setEnabled(true);
+        journalProperties.setPath(tempDir.resolve("stock.journal").toString());
+        journalProperties.setCapacityBytes(64 * 1024);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(beerSnapshotService.isEnabled()).thenReturn(true);
+
+        journaledStockService = startService();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        journaledStockService.stop();
+    }
+
+    @Test
+    void whenIncrementIsJournaledThenProjectedStockIsReturnedAndAppliedInBackground() throws Exception {
+        // Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer beer = beerMapper.toModel(beerDTO);
+
+        //When
+        when(beerRepository.findById(beerDTO.getId())).thenReturn(Optional.of(beer));
+        when(beerRepository.findAllForUpdateByIdIn(any())).thenReturn(Collections.singletonList(beer));
+
+        //Then
+        BeerDTO firstIncrement = journaledStockService.increment(beerDTO.getId(), 10);
+        BeerDTO secondIncrement = journaledStockService.increment(beerDTO.getId(), 5);
+
+        assertThat(firstIncrement.getQuantity(), is(equalTo(beerDTO.getQuantity() + 10)));
+        assertThat(secondIncrement.getQuantity(), is(equalTo(beerDTO.getQuantity() + 15)));
+        verify(beerRepository, timeout(5000).atLeastOnce()).saveAll(any());
+    }
+
+    @Test
+    void whenPendingIncrementsExceedMaxThenAnExceptionShouldBeThrown() throws Exception {
+        // Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer beer = beerMapper.toModel(beerDTO);
+
+        //When
+        when(beerRepository.findById(beerDTO.getId())).thenReturn(Optional.of(beer));
+        when(beerRepository.findAllForUpdateByIdIn(any())).thenReturn(Collections.singletonList(beer));
+        journaledStockService.increment(beerDTO.getId(), 30);
+
+        //Then
+        assertThrows(BeerStockExceededException.class, () -> journaledStockService.increment(beerDTO.getId(), 15));
+    }
+
+    @Test
+    void whenStockWasRaisedOutsideTheJournalThenApplyingStopsAtMax() throws Exception {
+        // Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer beer = beerMapper.toModel(beerDTO);
+        Beer raisedBeer = beerMapper.toModel(beerDTO);
+        raisedBeer.setQuantity(beerDTO.getMax() - 5);
+
+        //When
+        when(beerRepository.findById(beerDTO.getId())).thenReturn(Optional.of(beer));
+        when(beerRepository.findAllForUpdateByIdIn(any())).thenReturn(Collections.singletonList(raisedBeer));
+        journaledStockService.increment(beerDTO.getId(), 10);
+        journaledStockService.stop();
+
+        //Then
+        assertThat(raisedBeer.getQuantity(), is(equalTo(beerDTO.getMax())));
+        verify(beerColumnStore).adjustQuantity(beerDTO.getId(), 5);
+    }
+
+    @Test
+    void whenServiceRestartsThenOnlyIncrementsAfterTheLoadedSnapshotAreReplayed() throws Exception {
+        // Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer beer = beerMapper.toModel(beerDTO);
+        when(beerRepository.findById(beerDTO.getId())).thenReturn(Optional.of(beer));
+        when(beerRepository.findAllForUpdateByIdIn(any())).thenReturn(Collections.singletonList(beer));
+        journaledStockService.increment(beerDTO.getId(), 10);
+        journaledStockService.increment(beerDTO.getId(), 5);
+        journaledStockService.stop();
+
+        //When
+        Beer restoredBeer = beerMapper.toModel(beerDTO);
+        restoredBeer.setQuantity(beerDTO.getQuantity() + 10);
+        when(beerRepository.findAllForUpdateByIdIn(any())).thenReturn(Collections.singletonList(restoredBeer));
+        when(beerSnapshotService.getJournalSequence()).thenReturn(1L);
+        journaledStockService = startService();
+
+        //Then
+        assertThat(restoredBeer.getQuantity(), is(equalTo(beerDTO.getQuantity() + 15)));
+        verify(beerSnapshotService).unregisterJournalCheckpoint(2L);
+    }
+
+    @Test
+    void whenSnapshotIsWrittenThenItSeesTheAppliedJournalPosition() throws Exception {
+        // Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer beer = beerMapper.toModel(beerDTO);
+        when(beerRepository.findById(beerDTO.getId())).thenReturn(Optional.of(beer));
+        when(beerRepository.findAllForUpdateByIdIn(any())).thenReturn(Collections.singletonList(beer));
+        journaledStockService.increment(beerDTO.getId(), 10);
+        verify(beerRepository, timeout(5000)).saveAll(any());
+
+        //When
+        long snapshotSequence = journaledStockService.whileApplyingIsPaused(sequence -> sequence);
+
+        //Then
+        assertThat(snapshotSequence, is(equalTo(1L)));
+    }
+
+    @Test
+    void whenSnapshotsAreDisabledThenTheJournalRefusesToStart() {
+        //When
+        when(beerSnapshotService.isEnabled()).thenReturn(false);
+
+        //Then
+        assertThrows(IllegalStateException.class, this::startService);
+    }
+
+    @Test
+    void whenOneBeerIsSlowToLoadThenIncrementsOfOtherBeersAreNotBlocked() throws Exception {
+        // Given
+        BeerDTO slowBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO otherBeerDTO = BeerDTOBuilder.builder().id(3L).name("Skol").build().toBeerDTO();
+        CountDownLatch slowReadStarted = new CountDownLatch(1);
+        CountDownLatch releaseSlowRead = new CountDownLatch(1);
+        when(beerRepository.findById(slowBeerDTO.getId())).thenAnswer(invocation -> {
+            slowReadStarted.countDown();
+            releaseSlowRead.await(5, TimeUnit.SECONDS);
+            return Optional.of(beerMapper.toModel(slowBeerDTO));
+        });
+        when(beerRepository.findById(otherBeerDTO.getId())).thenReturn(Optional.of(beerMapper.toModel(otherBeerDTO)));
+        CompletableFuture<BeerDTO> slowIncrement = CompletableFuture.supplyAsync(() -> {
+            try {
+                return journaledStockService.increment(slowBeerDTO.getId(), 10);
+            } catch (BeerNotFoundException | BeerStockExceededException | DatabaseUnavailableException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(slowReadStarted.await(5, TimeUnit.SECONDS));
+
+        //When
+        BeerDTO otherIncrement = journaledStockService.increment(otherBeerDTO.getId(), 5);
+
+        //Then
+        assertThat(otherIncrement.getQuantity(), is(equalTo(otherBeerDTO.getQuantity() + 5)));
+        assertFalse(slowIncrement.isDone());
+        releaseSlowRead.countDown();
+        assertThat(slowIncrement.get(5, TimeUnit.SECONDS).getQuantity(), is(equalTo(slowBeerDTO.getQuantity() + 10)));
+    }
+
+    @Test
+    void whenIncrementIsCalledWithInvalidIdThenThrowException() {
+        //When
+        when(beerRepository.findById(INVALID_BEER_ID)).thenReturn(Optional.empty());
+
+        //Then
+        assertThrows(BeerNotFoundException.class, () -> journaledStockService.increment(INVALID_BEER_ID, 10));
+    }
+
+    @Test
+    void whenJournalIsStoppedThenIncrementsAreRejectedInsteadOfQueued() throws Exception {
+        // Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        when(beerRepository.findById(beerDTO.getId())).thenReturn(Optional.of(beerMapper.toModel(beerDTO)));
+        journaledStockService.stop();
+
+        //When
+        CompletableFuture<BeerDTO> increment = journaledStockService.submitIncrement(beerDTO.getId(), 10);
+
+        //Then
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> increment.get(1, TimeUnit.SECONDS));
+        assertThat(failure.getCause(), is(instanceOf(IllegalStateException.class)));
+        assertThrows(DatabaseUnavailableException.class, () -> journaledStockService.increment(beerDTO.getId(), 10));
+    }
+
+    @Test
+    void whenJournalIsFullAndNoSnapshotCanFreeItThenIncrementsFailFast() throws Exception {
+        // Given
+        journaledStockService.stop();
+        journalProperties.setPath(tempDir.resolve("full.journal").toString());
+        journalProperties.setCapacityBytes(StockJournal.HEADER_SIZE + 2 * StockJournal.RECORD_SIZE);
+        journalProperties.setGroupCommitMaxBatch(1);
+        journalProperties.setAppendTimeoutMillis(500);
+        journaledStockService = startService();
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer beer = beerMapper.toModel(beerDTO);
+        when(beerRepository.findById(beerDTO.getId())).thenReturn(Optional.of(beer));
+        when(beerRepository.findAllForUpdateByIdIn(any())).thenReturn(Collections.singletonList(beer));
+        journaledStockService.increment(beerDTO.getId(), 1);
+        journaledStockService.increment(beerDTO.getId(), 1);
+
+        //Then
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertThrows(DatabaseUnavailableException.class,
+                () -> journaledStockService.increment(beerDTO.getId(), 1)));
+    }
+
+    private JournaledStockService startService() throws Exception {
+        JournaledStockService service = new JournaledStockService(beerRepository, new ShardRouter(1), beerColumnStore,
+                beerSnapshotService, new TransactionTemplate(transactionManager), journalProperties);
+        service.start();
+        return service;
+    }
+}
@@ -0,0 +1,91 @@
+package com.lucas.beerstock.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StockJournalTest {
+    private static final int CAPACITY_BYTES = StockJournal.HEADER_SIZE + 4 * StockJournal.RECORD_SIZE;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void whenJournalIsReopenedThenRecordsAfterTheSnapshotAreRecovered() throws IOException {
+        // Given
+        Path path = tempDir.resolve("stock.journal");
+        try (StockJournal journal = StockJournal.open(path, CAPACITY_BYTES)) {
+            journal.append(Arrays.asList(new StockMutation(1L, 10), new StockMutation(2L, 5)));
+            journal.append(Collections.singletonList(new StockMutation(1L, 3)));
+            journal.markCovered(1);
+        }
+
+        //When
+        try (StockJournal journal = StockJournal.open(path, CAPACITY_BYTES)) {
+            //Then
+            assertThat(journal.getLastSequence(), is(equalTo(3L)));
+            assertThat(journal.getCoveredSequence(), is(equalTo(1L)));
+            assertThat(journal.recordsAfter(1), contains(new JournalRecord(2, 2L, 5), new JournalRecord(3, 1L, 3)));
+        }
+    }
+
+    @Test
+    void whenJournalIsFullThenItIsRewoundOnlyAfterASnapshotCoversEverything() throws IOException {
+        // Given
+        Path path = tempDir.resolve("stock.journal");
+        try (StockJournal journal = StockJournal.open(path, CAPACITY_BYTES)) {
+            List<JournalRecord> records = journal.append(Arrays.asList(new StockMutation(1L, 1), new StockMutation(1L, 1),
+                    new StockMutation(1L, 1), new StockMutation(1L, 1)));
+
+            //Then
+            assertFalse(journal.hasRoomFor(1));
+            assertThrows(IllegalStateException.class, () -> journal.append(Collections.singletonList(new StockMutation(1L, 1))));
+            journal.markCovered(records.get(2).getSequence());
+            assertFalse(journal.rewindIfFullyCovered());
+
+            journal.markCovered(records.get(3).getSequence());
+            assertTrue(journal.rewindIfFullyCovered());
+            journal.append(Collections.singletonList(new StockMutation(2L, 7)));
+        }
+
+        try (StockJournal journal = StockJournal.open(path, CAPACITY_BYTES)) {
+            assertThat(journal.getLastSequence(), is(equalTo(5L)));
+            assertThat(journal.recordsAfter(journal.getCoveredSequence()), contains(new JournalRecord(5, 2L, 7)));
+        }
+    }
+
+    @Test
+    void whenSnapshotIsAheadOfTheJournalThenNewRecordsContinueAfterTheSnapshot() throws IOException {
+        try (StockJournal journal = StockJournal.open(tempDir.resolve("stock.journal"), CAPACITY_BYTES)) {
+            //When
+            journal.markCovered(41);
+            journal.rewindIfFullyCovered();
+
+            //Then
+            assertThat(journal.append(Collections.singletonList(new StockMutation(1L, 1))),
+                    contains(new JournalRecord(42, 1L, 1)));
+        }
+    }
+
+    @Test
+    void whenJournalIsNewThenThereIsNothingToReplay() throws IOException {
+        try (StockJournal journal = StockJournal.open(tempDir.resolve("stock.journal"), CAPACITY_BYTES)) {
+            assertThat(journal.recordsAfter(0), is(empty()));
+            assertThat(journal.getLastSequence(), is(equalTo(0L)));
+        }
+    }
+}
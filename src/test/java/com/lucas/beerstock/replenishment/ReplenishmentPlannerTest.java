@@ -0,0 +1,133 @@
+package com.lucas.beerstock.replenishment;
+
+import com.lucas.beerstock.config.ReplenishmentProperties;
+import com.lucas.beerstock.dto.ReplenishmentPlanDTO;
+import com.lucas.beerstock.dto.ReplenishmentRequestDTO;
+import com.lucas.beerstock.entity.Beer;
+import com.lucas.beerstock.enums.BeerType;
+import com.lucas.beerstock.exception.ReplenishmentPlanNotReadyException;
+import com.lucas.beerstock.repository.BeerRepository;
+import com.lucas.beerstock.sharding.ShardRouter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReplenishmentPlannerTest {
+
+    private BeerRepository beerRepository;
+
+    private ReplenishmentPlanner replenishmentPlanner;
+
+    @BeforeEach
+    void setUp() {
+        beerRepository = mock(BeerRepository.class);
+        ReplenishmentProperties replenishmentProperties = new ReplenishmentProperties();
+        replenishmentProperties.setChunkSize(2);
+        replenishmentProperties.setParallelism(2);
+        replenishmentPlanner = new ReplenishmentPlanner(beerRepository, new ShardRouter(1),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), replenishmentProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replenishmentPlanner.shutdown();
+    }
+
+    @Test
+    void whenPlanCompletesThenBudgetGoesToEmptiestBeersAndPlanIsGroupedByBrandAndType() throws Exception {
+        // Given
+        Beer halfFullLager = new Beer(1L, "Brahma", "Ambev", 50, 25, BeerType.LAGER);
+        Beer emptyIpa = new Beer(2L, "Goose Island", "Ambev", 10, 0, BeerType.IPA);
+        Beer fullStout = new Beer(3L, "Guinness", "Diageo", 20, 20, BeerType.STOUT);
+        when(beerRepository.count()).thenReturn(3L);
+        when(beerRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(halfFullLager, emptyIpa));
+        when(beerRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(fullStout));
+
+        //When
+        ReplenishmentPlanDTO startedPlan = replenishmentPlanner.start(ReplenishmentRequestDTO.builder().budget(15L).build());
+        ReplenishmentPlanDTO finishedPlan = awaitFinished(startedPlan.getId());
+
+        //Then
+        assertThat(finishedPlan.getStatus(), is(PlanStatus.COMPLETED));
+        assertThat(finishedPlan.getProcessedBeers(), is(equalTo(3L)));
+        assertThat(finishedPlan.getOrderedUnits(), is(equalTo(15L)));
+        assertThat(finishedPlan.getUnfundedUnits(), is(equalTo(20L)));
+        List<ReplenishmentLine> lines = replenishmentPlanner.completedPlan(startedPlan.getId());
+        assertThat(lines, hasSize(2));
+        assertThat(lines.get(0).getBeerId(), is(equalTo(1L)));
+        assertThat(lines.get(0).getOrderQuantity(), is(equalTo(5)));
+        assertThat(lines.get(1).getBeerId(), is(equalTo(2L)));
+        assertThat(lines.get(1).getOrderQuantity(), is(equalTo(10)));
+        verify(beerRepository, times(2)).findByIdGreaterThanOrderByIdAsc(any(), any(Pageable.class));
+    }
+
+    @Test
+    void whenRunningPlanIsCancelledThenItHasNoPlanToDownload() throws Exception {
+        // Given
+        CountDownLatch readStarted = new CountDownLatch(1);
+        CountDownLatch releaseRead = new CountDownLatch(1);
+        when(beerRepository.count()).thenReturn(1L);
+        when(beerRepository.findByIdGreaterThanOrderByIdAsc(any(), any(Pageable.class))).thenAnswer(invocation -> {
+            readStarted.countDown();
+            releaseRead.await();
+            return Collections.singletonList(new Beer(1L, "Brahma", "Ambev", 50, 0, BeerType.LAGER));
+        });
+        ReplenishmentPlanDTO startedPlan = replenishmentPlanner.start(ReplenishmentRequestDTO.builder().budget(15L).build());
+        readStarted.await();
+
+        //When
+        replenishmentPlanner.cancel(startedPlan.getId());
+        releaseRead.countDown();
+
+        //Then
+        assertThat(awaitFinished(startedPlan.getId()).getStatus(), is(PlanStatus.CANCELLED));
+        assertThrows(ReplenishmentPlanNotReadyException.class,
+                () -> replenishmentPlanner.completedPlan(startedPlan.getId()));
+    }
+
+    @Test
+    void whenPlanIsWrittenAsCsvThenFieldsWithCommasAreQuoted() throws Exception {
+        // Given
+        List<ReplenishmentLine> lines = List.of(
+                new ReplenishmentLine(1L, "Brahma, Duplo Malte", "Ambev", BeerType.LAGER, 10, 50, 40, 40));
+        StringWriter writer = new StringWriter();
+
+        //When
+        ReplenishmentPlanner.writeCsv(lines, writer);
+
+        //Then
+        assertThat(writer.toString(), is(equalTo("brand,type,beer_id,name,quantity,max,shortfall,order_quantity\n"
+                + "Ambev,LAGER,1,\"Brahma, Duplo Malte\",10,50,40,40\n")));
+    }
+
+    private ReplenishmentPlanDTO awaitFinished(String id) throws Exception {
+        ReplenishmentPlanDTO plan = replenishmentPlanner.status(id);
+        for (int i = 0; i < 500 && plan.getStatus() == PlanStatus.RUNNING; i++) {
+            Thread.sleep(10);
+            plan = replenishmentPlanner.status(id);
+        }
+        return plan;
+    }
+}
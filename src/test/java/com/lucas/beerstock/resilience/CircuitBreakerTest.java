@@ -0,0 +1,92 @@
+package com.lucas.beerstock.resilience;
+
+import com.lucas.beerstock.config.ResilienceProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class CircuitBreakerTest {
+
+    private final AtomicLong nanoClock = new AtomicLong();
+
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        ResilienceProperties resilienceProperties = new ResilienceProperties();
+        resilienceProperties.setSlidingWindowSize(4);
+        resilienceProperties.setMinimumCalls(4);
+        resilienceProperties.setFailureRateThresholdPercent(50);
+        resilienceProperties.setOpenDurationMillis(1_000);
+        resilienceProperties.setHalfOpenTrialCalls(1);
+        circuitBreaker = new CircuitBreaker(resilienceProperties, nanoClock::get);
+    }
+
+    @Test
+    void whenFailureRateReachesThresholdThenCircuitOpensAndRejectsCalls() {
+        //When
+        record(true, false, true, false);
+
+        //Then
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.OPEN));
+        assertThat(circuitBreaker.tryAcquire(), is(false));
+    }
+
+    @Test
+    void whenFailuresAreBelowThresholdThenCircuitStaysClosed() {
+        //When
+        record(true, false, false, false, true, false);
+
+        //Then
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.CLOSED));
+        assertThat(circuitBreaker.tryAcquire(), is(true));
+    }
+
+    @Test
+    void whenOpenDurationElapsesThenTrialCallDecidesTheState() {
+        // Given
+        record(true, true, true, true);
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        //When
+        boolean trialPermitted = circuitBreaker.tryAcquire();
+        boolean secondCallPermitted = circuitBreaker.tryAcquire();
+        circuitBreaker.onSuccess();
+
+        //Then
+        assertThat(trialPermitted, is(true));
+        assertThat(secondCallPermitted, is(false));
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    void whenTrialCallFailsThenCircuitOpensAgain() {
+        // Given
+        record(true, true, true, true);
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        //When
+        circuitBreaker.tryAcquire();
+        circuitBreaker.onFailure();
+
+        //Then
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.OPEN));
+        assertThat(circuitBreaker.tryAcquire(), is(false));
+    }
+
+    private void record(boolean... failures) {
+        for (boolean failed : failures) {
+            circuitBreaker.tryAcquire();
+            if (failed) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package com.lucas.beerstock.service;
 
 import com.lucas.beerstock.builder.BeerDTOBuilder;
+import com.lucas.beerstock.columnar.BeerColumnFilter;
+import com.lucas.beerstock.columnar.BeerColumnStore;
 import com.lucas.beerstock.dto.BeerDTO;
+import com.lucas.beerstock.dto.BeerLookupDTO;
+import com.lucas.beerstock.dto.BeerLookupResultDTO;
 import com.lucas.beerstock.entity.Beer;
 import com.lucas.beerstock.exception.BeerAlreadyRegisteredException;
 import com.lucas.beerstock.exception.BeerNotFoundException;
 import com.lucas.beerstock.exception.BeerStockExceededException;
 import com.lucas.beerstock.mapper.BeerMapper;
 import com.lucas.beerstock.repository.BeerRepository;
+import com.lucas.beerstock.sharding.ShardRouter;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Assertions;
@@ -16,8 +21,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -27,6 +37,8 @@ import static org.hamcrest.Matchers.*;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +48,17 @@ public class BeerServiceTest {
     @Mock
     private BeerRepository beerRepository;
 
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter(1);
+
+    @Mock
+    private BeerColumnStore beerColumnStore;
+
+    private PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
     private BeerMapper beerMapper = BeerMapper.INSTANCE;
 
     @InjectMocks
@@ -126,6 +149,24 @@ public class BeerServiceTest {
         assertThat(foundListBeerDTO, is(empty()));
     }
 
+    @Test
+    void whenColumnStoreIsLoadedThenListBeerIsServedFromIt() {
+        // Given
+        BeerDTO expectedFoundBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        //When
+        when(beerColumnStore.isLoaded()).thenReturn(true);
+        when(beerColumnStore.scan(any(BeerColumnFilter.class), anyInt()))
+                .thenReturn(Collections.singletonList(expectedFoundBeerDTO));
+
+        //Then
+        List<BeerDTO> foundListBeerDTO = beerService.listAll();
+
+        assertThat(foundListBeerDTO, is(equalTo(Collections.singletonList(expectedFoundBeerDTO))));
+        verify(beerRepository, never()).findAll();
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
     @Test
     void whenExclusionIsCalledWithValidIdThenABeerShouldBeDeleted() throws BeerNotFoundException {
         // Given
@@ -148,17 +189,19 @@ public class BeerServiceTest {
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
 
-        //When
-        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
-        when(beerRepository.save(expectedBeer)).thenReturn(expectedBeer);
-
         int quantityToIncrement = 10;
         int expectedQuantityAfterIncrement = expectedBeerDTO.getQuantity() + quantityToIncrement;
+        expectedBeer.setQuantity(expectedQuantityAfterIncrement);
+
+        //When
+        when(beerRepository.incrementQuantity(expectedBeerDTO.getId(), quantityToIncrement)).thenReturn(1);
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
 
         //Then
         BeerDTO incrementBeerDTO = beerService.increment(expectedBeerDTO.getId(), quantityToIncrement);
         assertThat(expectedQuantityAfterIncrement, equalTo(incrementBeerDTO.getQuantity()));
         assertThat(expectedQuantityAfterIncrement, lessThan(expectedBeerDTO.getMax()));
+        verify(beerColumnStore).adjustQuantity(expectedBeerDTO.getId(), quantityToIncrement);
     }
 
     @Test
@@ -205,4 +248,47 @@ public class BeerServiceTest {
         assertThrows(BeerNotFoundException.class, () -> beerService.increment(INVALID_BEER_ID, quantityToIncrement));
     }
 
+    @Test
+    void whenLookupIsCalledThenFoundBeersAreReturnedInRequestOrderWithMissingOnes() {
+        // Given
+        Beer polar = beerMapper.toModel(BeerDTOBuilder.builder().id(1L).name("Polar").build().toBeerDTO());
+        Beer skol = beerMapper.toModel(BeerDTOBuilder.builder().id(2L).name("Skol").build().toBeerDTO());
+        Beer brahma = beerMapper.toModel(BeerDTOBuilder.builder().id(3L).name("Brahma").build().toBeerDTO());
+        BeerLookupDTO beerLookupDTO = BeerLookupDTO.builder()
+                .names(Arrays.asList("Skol", "Unknown", "Polar", "Skol"))
+                .ids(Arrays.asList(3L, 1L, 99L))
+                .build();
+
+        //When
+        when(beerRepository.findByNameIn(Arrays.asList("Skol", "Unknown", "Polar"))).thenReturn(Arrays.asList(polar, skol));
+        when(beerRepository.findAllById(Arrays.asList(3L, 1L, 99L))).thenReturn(Arrays.asList(polar, brahma));
+
+        //Then
+        BeerLookupResultDTO result = beerService.lookup(beerLookupDTO);
+
+        assertThat(result.getFound(), Matchers.contains(beerMapper.toDTO(skol), beerMapper.toDTO(polar), beerMapper.toDTO(brahma)));
+        assertThat(result.getMissingNames(), Matchers.contains("Unknown"));
+        assertThat(result.getMissingIds(), Matchers.contains(99L));
+    }
+
+    @Test
+    void whenLookupIsCalledWithManyNamesThenTheyAreQueriedInChunks() {
+        // Given
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            names.add("Beer " + i);
+        }
+
+        //When
+        when(beerRepository.findByNameIn(anyCollection())).thenReturn(Collections.emptyList());
+
+        //Then
+        BeerLookupResultDTO result = beerService.lookup(BeerLookupDTO.builder().names(names).build());
+
+        assertThat(result.getFound(), is(empty()));
+        assertThat(result.getMissingNames(), is(equalTo(names)));
+        verify(beerRepository, times(3)).findByNameIn(anyCollection());
+        verify(beerRepository, never()).findAllById(any());
+    }
+
 }
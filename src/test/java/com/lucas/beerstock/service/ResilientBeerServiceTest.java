@@ -0,0 +1,140 @@
+package com.lucas.beerstock.service;
+
+import com.lucas.beerstock.builder.BeerDTOBuilder;
+import com.lucas.beerstock.config.ResilienceProperties;
+import com.lucas.beerstock.dto.BeerDTO;
+import com.lucas.beerstock.dto.BeerLookupDTO;
+import com.lucas.beerstock.exception.DatabaseUnavailableException;
+import com.lucas.beerstock.resilience.CircuitBreaker;
+import com.lucas.beerstock.resilience.ReadResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ResilientBeerServiceTest {
+
+    private BeerService beerService;
+
+    private ResilientBeerService resilientBeerService;
+
+    @BeforeEach
+    void setUp() {
+        beerService = mock(BeerService.class);
+        ResilienceProperties resilienceProperties = new ResilienceProperties();
+        resilienceProperties.setSlidingWindowSize(2);
+        resilienceProperties.setMinimumCalls(2);
+        resilienceProperties.setMaxConcurrentReads(1);
+        resilientBeerService = new ResilientBeerService(beerService, resilienceProperties);
+    }
+
+    @Test
+    void whenDatabaseFailsAfterASuccessfulReadThenLastKnownGoodBeerIsServedStale() throws Exception {
+        // Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        when(beerService.findByName(beerDTO.getName()))
+                .thenReturn(beerDTO)
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        resilientBeerService.findByName(beerDTO.getName());
+
+        //When
+        ReadResult<BeerDTO> result = resilientBeerService.findByName(beerDTO.getName());
+
+        //Then
+        assertThat(result.isStale(), is(true));
+        assertThat(result.getValue(), is(equalTo(beerDTO)));
+    }
+
+    @Test
+    void whenReadTimesOutWithoutLastKnownGoodBeerThenDatabaseIsUnavailable() throws Exception {
+        // Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        when(beerService.findByName(beerDTO.getName()))
+                .thenThrow(new QueryTimeoutException("Statement cancelled by the transaction timeout"));
+
+        //Then
+        assertThrows(DatabaseUnavailableException.class, () -> resilientBeerService.findByName(beerDTO.getName()));
+    }
+
+    @Test
+    void whenAllReadPermitsAreTakenThenFurtherReadsAreRejectedWithoutReachingTheDatabase() throws Exception {
+        // Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        CountDownLatch readStarted = new CountDownLatch(1);
+        CountDownLatch releaseRead = new CountDownLatch(1);
+        when(beerService.findByName(beerDTO.getName())).thenAnswer(invocation -> {
+            readStarted.countDown();
+            releaseRead.await();
+            return beerDTO;
+        });
+        CompletableFuture<ReadResult<BeerDTO>> firstRead = CompletableFuture.supplyAsync(() -> {
+            try {
+                return resilientBeerService.findByName(beerDTO.getName());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        readStarted.await();
+
+        //When
+        try {
+            assertThrows(DatabaseUnavailableException.class, () -> resilientBeerService.lookup(new BeerLookupDTO()));
+        } finally {
+            releaseRead.countDown();
+        }
+
+        //Then
+        assertThat(firstRead.get().getValue(), is(equalTo(beerDTO)));
+        verify(beerService, never()).lookup(any());
+        assertThat(resilientBeerService.getCircuitState(), is(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    void whenCircuitIsOpenThenWritesFailFastWithoutReachingTheDatabase() throws Exception {
+        // Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        when(beerService.findByName(beerDTO.getName()))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        for (int i = 0; i < 2; i++) {
+            assertThrows(DatabaseUnavailableException.class, () -> resilientBeerService.findByName(beerDTO.getName()));
+        }
+
+        //Then
+        assertThat(resilientBeerService.getCircuitState(), is(CircuitBreaker.State.OPEN));
+        assertThrows(DatabaseUnavailableException.class, () -> resilientBeerService.createBeer(beerDTO));
+        verify(beerService, never()).createBeer(beerDTO);
+    }
+
+    @Test
+    void whenWritesConflictThenTheErrorIsPassedOnAndTheCircuitStaysClosed() throws Exception {
+        // Given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        when(beerService.createBeer(beerDTO)).thenThrow(new DataIntegrityViolationException("Duplicate name"));
+        doThrow(new EmptyResultDataAccessException(1)).when(beerService).deleteById(beerDTO.getId());
+
+        //When
+        for (int i = 0; i < 2; i++) {
+            assertThrows(DataIntegrityViolationException.class, () -> resilientBeerService.createBeer(beerDTO));
+            assertThrows(EmptyResultDataAccessException.class, () -> resilientBeerService.deleteById(beerDTO.getId()));
+        }
+
+        //Then
+        assertThat(resilientBeerService.getCircuitState(), is(CircuitBreaker.State.CLOSED));
+    }
+}
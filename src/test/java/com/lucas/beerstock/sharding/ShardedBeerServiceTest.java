@@ -0,0 +1,225 @@
+package com.lucas.beerstock.sharding;
+
+import com.lucas.beerstock.builder.BeerDTOBuilder;
+import com.lucas.beerstock.columnar.BeerColumnStore;
+import com.lucas.beerstock.config.SnapshotProperties;
+import com.lucas.beerstock.dto.BeerDTO;
+import com.lucas.beerstock.dto.BeerLookupDTO;
+import com.lucas.beerstock.dto.BeerLookupResultDTO;
+import com.lucas.beerstock.exception.BeerAlreadyRegisteredException;
+import com.lucas.beerstock.exception.BeerNotFoundException;
+import com.lucas.beerstock.exception.BeerStockExceededException;
+import com.lucas.beerstock.service.BeerService;
+import com.lucas.beerstock.snapshot.BeerSnapshotService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "beerstock.grpc.enabled=false",
+        "beerstock.sharding.shards[0].url=" + ShardedBeerServiceTest.SHARD_URL_PREFIX + "0;DB_CLOSE_DELAY=-1",
+        "beerstock.sharding.shards[0].username=sa",
+        "beerstock.sharding.shards[1].url=" + ShardedBeerServiceTest.SHARD_URL_PREFIX + "1;DB_CLOSE_DELAY=-1",
+        "beerstock.sharding.shards[1].username=sa",
+        "beerstock.sharding.shards[2].url=" + ShardedBeerServiceTest.SHARD_URL_PREFIX + "2;DB_CLOSE_DELAY=-1",
+        "beerstock.sharding.shards[2].username=sa"
+})
+public class ShardedBeerServiceTest {
+    static final String SHARD_URL_PREFIX = "jdbc:h2:mem:beerstock-shard";
+    private static final int SHARD_COUNT = 3;
+    private static final List<String> BEER_NAMES = Arrays.asList("Polar", "Skol", "Brahma", "Bohemia", "Original", "Serra Malte");
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private BeerColumnStore beerColumnStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        for (int shard = 0; shard < SHARD_COUNT; shard++) {
+            shardTemplate(shard).update("DELETE FROM beer");
+        }
+        // The rows were deleted behind the service's back, so the column store has to be rebuilt.
+        beerColumnStore.load();
+    }
+
+    @Test
+    void whenBeersAreCreatedThenEachOneIsStoredOnTheShardOfItsName() throws BeerAlreadyRegisteredException {
+        //When
+        List<BeerDTO> createdBeers = createBeers();
+
+        //Then
+        Set<Integer> usedShards = new HashSet<>();
+        for (BeerDTO createdBeer : createdBeers) {
+            int shard = shardRouter.shardForName(createdBeer.getName());
+            usedShards.add(shard);
+            assertThat(shardRouter.shardForId(createdBeer.getId()), is(equalTo(shard)));
+            assertThat(shardTemplate(shard).queryForObject("SELECT name FROM beer WHERE id = ?", String.class,
+                    createdBeer.getId()), is(equalTo(createdBeer.getName())));
+        }
+        assertThat(usedShards.size(), is(greaterThan(1)));
+    }
+
+    @Test
+    void whenDuplicatedNameIsCreatedThenAnExceptionShouldBeThrown() throws BeerAlreadyRegisteredException {
+        // Given
+        createBeers();
+        BeerDTO duplicatedBeer = BeerDTOBuilder.builder().id(null).name("Skol").build().toBeerDTO();
+
+        //Then
+        assertThrows(BeerAlreadyRegisteredException.class, () -> beerService.createBeer(duplicatedBeer));
+    }
+
+    @Test
+    void whenListAllIsCalledThenBeersFromAllShardsAreMergedInIdOrder() throws BeerAlreadyRegisteredException {
+        // Given
+        List<BeerDTO> createdBeers = createBeers();
+
+        //When
+        List<BeerDTO> listedBeers = beerService.listAll();
+
+        //Then
+        assertThat(listedBeers, hasSize(createdBeers.size()));
+        List<Long> listedIds = listedBeers.stream().map(BeerDTO::getId).collect(Collectors.toList());
+        List<Long> sortedIds = new ArrayList<>(listedIds);
+        sortedIds.sort(Long::compare);
+        assertThat(listedIds, is(equalTo(sortedIds)));
+    }
+
+    @Test
+    void whenBeersAreLookedUpAcrossShardsThenRequestOrderIsPreserved() throws BeerAlreadyRegisteredException {
+        // Given
+        List<BeerDTO> createdBeers = createBeers();
+
+        //When
+        BeerLookupResultDTO result = beerService.lookup(BeerLookupDTO.builder()
+                .names(Arrays.asList("Serra Malte", "Polar", "Unknown"))
+                .ids(Arrays.asList(createdBeers.get(2).getId(), 999L))
+                .build());
+
+        //Then
+        assertThat(result.getFound().stream().map(BeerDTO::getName).collect(Collectors.toList()),
+                contains("Serra Malte", "Polar", "Brahma"));
+        assertThat(result.getMissingNames(), contains("Unknown"));
+        assertThat(result.getMissingIds(), contains(999L));
+    }
+
+    @Test
+    void whenBeerIsIncrementedAndDeletedThenItsShardIsUpdated()
+            throws BeerAlreadyRegisteredException, BeerNotFoundException, BeerStockExceededException {
+        // Given
+        BeerDTO beer = createBeers().get(1);
+
+        //When
+        BeerDTO incrementedBeer = beerService.increment(beer.getId(), 5);
+        beerService.deleteById(beer.getId());
+
+        //Then
+        assertThat(incrementedBeer.getQuantity(), is(equalTo(beer.getQuantity() + 5)));
+        assertThrows(BeerNotFoundException.class, () -> beerService.findByName(beer.getName()));
+        assertThrows(BeerNotFoundException.class, () -> beerService.deleteById(beer.getId()));
+    }
+
+    @Test
+    void whenBeerIsIncrementedConcurrentlyThenTheDatabaseAndColumnStoreAgree() throws Exception {
+        // Given
+        BeerDTO beer = createBeers().get(0);
+        int increments = (beer.getMax() - beer.getQuantity()) / 2;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        //When
+        try {
+            List<Future<BeerDTO>> results = new ArrayList<>();
+            for (int i = 0; i < increments; i++) {
+                results.add(executor.submit(() -> beerService.increment(beer.getId(), 2)));
+            }
+            for (Future<BeerDTO> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        //Then
+        assertThat(beerService.findByName(beer.getName()).getQuantity(), is(equalTo(beer.getMax())));
+        assertThat(beerService.listAll().stream().filter(listedBeer -> listedBeer.getId().equals(beer.getId()))
+                .map(BeerDTO::getQuantity).collect(Collectors.toList()), contains(beer.getMax()));
+        assertThrows(BeerStockExceededException.class, () -> beerService.increment(beer.getId(), 1));
+    }
+
+    @Test
+    void whenSnapshotIsTakenAndLoadedThenBeersOfEveryShardAreRestored(@TempDir Path tempDir)
+            throws BeerAlreadyRegisteredException {
+        // Given
+        SnapshotProperties snapshotProperties = new SnapshotProperties();
+        snapshotProperties.setEnabled(true);
+        snapshotProperties.setPath(tempDir.resolve("beers.snapshot").toString());
+        BeerSnapshotService beerSnapshotService = new BeerSnapshotService(jdbcTemplate, transactionTemplate,
+                shardRouter, snapshotProperties);
+        List<BeerDTO> createdBeers = createBeers();
+        beerSnapshotService.snapshot();
+        for (int shard = 0; shard < SHARD_COUNT; shard++) {
+            shardTemplate(shard).update("DELETE FROM beer");
+        }
+
+        //When
+        beerSnapshotService.load();
+
+        //Then
+        for (BeerDTO createdBeer : createdBeers) {
+            assertThat(shardTemplate(shardRouter.shardForId(createdBeer.getId())).queryForObject(
+                    "SELECT name FROM beer WHERE id = ?", String.class, createdBeer.getId()),
+                    is(equalTo(createdBeer.getName())));
+        }
+        BeerDTO newBeer = beerService.createBeer(BeerDTOBuilder.builder().id(null).name("Kaiser").build().toBeerDTO());
+        assertThat(shardRouter.shardForId(newBeer.getId()), is(equalTo(shardRouter.shardForName("Kaiser"))));
+        assertThat(createdBeers.stream().map(BeerDTO::getId).collect(Collectors.toSet()).contains(newBeer.getId()),
+                is(false));
+    }
+
+    private List<BeerDTO> createBeers() throws BeerAlreadyRegisteredException {
+        List<BeerDTO> createdBeers = new ArrayList<>();
+        for (String name : BEER_NAMES) {
+            createdBeers.add(beerService.createBeer(BeerDTOBuilder.builder().id(null).name(name).build().toBeerDTO()));
+        }
+        return createdBeers;
+    }
+
+    private JdbcTemplate shardTemplate(int shard) {
+        return new JdbcTemplate(new DriverManagerDataSource(SHARD_URL_PREFIX + shard + ";DB_CLOSE_DELAY=-1", "sa", ""));
+    }
+}
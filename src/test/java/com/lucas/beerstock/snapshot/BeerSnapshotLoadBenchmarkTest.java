@@ -0,0 +1,94 @@
+package com.lucas.beerstock.snapshot;
+
+import com.lucas.beerstock.columnar.BeerColumnStore;
+import com.lucas.beerstock.config.ColumnarProperties;
+import com.lucas.beerstock.config.SnapshotProperties;
+import com.lucas.beerstock.entity.Beer;
+import com.lucas.beerstock.enums.BeerType;
+import com.lucas.beerstock.repository.BeerRepository;
+import com.lucas.beerstock.sharding.ShardRouter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * Measures restart-to-serving time for a million beers: loading the snapshot into an empty database and
+ * the column store that serves the list queries. Run with {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BeerSnapshotLoadBenchmarkTest {
+
+    private static final int BEERS = 1_000_000;
+
+    private static final Duration RESTART_BUDGET = Duration.ofSeconds(60);
+
+    @TempDir
+    Path tempDir;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("TRUNCATE TABLE beer");
+    }
+
+    @Test
+    void whenAMillionBeersAreRestoredThenTheCatalogueServesWithinSeconds() throws IOException {
+        // Given
+        Path path = tempDir.resolve("beers.snapshot");
+        try (BeerSnapshotWriter writer = new BeerSnapshotWriter(path, 0)) {
+            for (long id = 1; id <= BEERS; id++) {
+                writer.write(new Beer(id, "Beer " + id, "Brand " + id % 1_000, 100, (int) (id % 100),
+                        BeerType.values()[(int) (id % BeerType.values().length)]));
+            }
+            writer.commit();
+        }
+        SnapshotProperties snapshotProperties = new SnapshotProperties();
+        snapshotProperties.setEnabled(true);
+        snapshotProperties.setPath(path.toString());
+        ShardRouter shardRouter = new ShardRouter(1);
+        BeerSnapshotService beerSnapshotService = new BeerSnapshotService(jdbcTemplate, transactionTemplate,
+                shardRouter, snapshotProperties);
+        BeerColumnStore beerColumnStore = new BeerColumnStore(beerRepository, shardRouter, transactionTemplate,
+                new ColumnarProperties());
+
+        //When
+        long start = System.nanoTime();
+        beerSnapshotService.load();
+        long snapshotLoaded = System.nanoTime();
+        beerColumnStore.load();
+        long serving = System.nanoTime();
+
+        //Then
+        Duration restart = Duration.ofNanos(serving - start);
+        System.out.printf("Restored %d beers: snapshot %d ms, column store %d ms, restart to serving %d ms%n", BEERS,
+                (snapshotLoaded - start) / 1_000_000, (serving - snapshotLoaded) / 1_000_000, restart.toMillis());
+        assertThat(beerColumnStore.size(), is(equalTo(BEERS)));
+        assertThat(restart, is(lessThan(RESTART_BUDGET)));
+    }
+}
@@ -0,0 +1,84 @@
+package com.lucas.beerstock.snapshot;
+
+import com.lucas.beerstock.entity.Beer;
+import com.lucas.beerstock.enums.BeerType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BeerSnapshotReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void whenSnapshotIsWrittenThenItIsReadBackInBatches() throws IOException {
+        // Given
+        Path path = tempDir.resolve("beers.snapshot");
+        List<Beer> beers = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            beers.add(new Beer(id, "Beer " + id, "Brahmá", 50, (int) id, BeerType.values()[(int) id % BeerType.values().length]));
+        }
+        try (BeerSnapshotWriter writer = new BeerSnapshotWriter(path, 0)) {
+            for (Beer beer : beers) {
+                writer.write(beer);
+            }
+            writer.commit();
+        }
+
+        //When
+        List<List<Beer>> batches = new ArrayList<>();
+        long count = BeerSnapshotReader.read(path, 2, batches::add);
+
+        //Then
+        assertThat(count, is(equalTo(5L)));
+        assertThat(batches, hasSize(3));
+        List<Beer> readBeers = new ArrayList<>();
+        batches.forEach(readBeers::addAll);
+        assertThat(readBeers, is(equalTo(beers)));
+    }
+
+    @Test
+    void whenSnapshotIsNotCommittedThenNoFileIsLeftBehind() throws IOException {
+        // Given
+        Path path = tempDir.resolve("beers.snapshot");
+
+        //When
+        try (BeerSnapshotWriter writer = new BeerSnapshotWriter(path, 0)) {
+            writer.write(new Beer(1L, "Polar", "Ambev", 50, 10, BeerType.LAGER));
+        }
+
+        //Then
+        assertFalse(Files.exists(path));
+        assertFalse(Files.exists(tempDir.resolve("beers.snapshot.tmp")));
+    }
+
+    @Test
+    void whenSnapshotIsTruncatedThenAnExceptionShouldBeThrown() throws IOException {
+        // Given
+        Path path = tempDir.resolve("beers.snapshot");
+        try (BeerSnapshotWriter writer = new BeerSnapshotWriter(path, 0)) {
+            writer.write(new Beer(1L, "Polar", "Ambev", 50, 10, BeerType.LAGER));
+            writer.commit();
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 4));
+
+        //Then
+        assertThrows(IOException.class, () -> BeerSnapshotReader.read(path, 10, batch -> {
+        }));
+    }
+}
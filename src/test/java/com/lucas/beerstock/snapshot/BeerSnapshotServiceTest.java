@@ -0,0 +1,166 @@
+package com.lucas.beerstock.snapshot;
+
+import com.lucas.beerstock.config.SnapshotProperties;
+import com.lucas.beerstock.entity.Beer;
+import com.lucas.beerstock.enums.BeerType;
+import com.lucas.beerstock.repository.BeerRepository;
+import com.lucas.beerstock.sharding.ShardRouter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BeerSnapshotServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void whenSnapshotIsLoadedIntoAnEmptyCatalogueThenBeersAndIdSequenceAreRestored() {
+        // Given
+        SnapshotProperties snapshotProperties = new SnapshotProperties();
+        snapshotProperties.setEnabled(true);
+        snapshotProperties.setPath(tempDir.resolve("beers.snapshot").toString());
+        snapshotProperties.setLoadBatchSize(2);
+        BeerSnapshotService beerSnapshotService = new BeerSnapshotService(jdbcTemplate, transactionTemplate,
+                new ShardRouter(1), snapshotProperties);
+
+        beerRepository.save(new Beer(null, "Polar", "Ambev", 50, 10, BeerType.LAGER));
+        beerRepository.save(new Beer(null, "Skol", "Ambev", 60, 20, BeerType.ALE));
+        Beer lastBeer = beerRepository.save(new Beer(null, "Brahma", "Ambev", 70, 30, BeerType.IPA));
+        beerSnapshotService.snapshot();
+        beerRepository.deleteAll();
+
+        //When
+        beerSnapshotService.load();
+
+        //Then
+        assertThat(beerRepository.count(), is(equalTo(3L)));
+        assertThat(beerRepository.findByName("Brahma").orElseThrow(), is(equalTo(lastBeer)));
+        Beer newBeer = beerRepository.save(new Beer(null, "Bohemia", "Ambev", 50, 5, BeerType.WEISS));
+        assertThat(newBeer.getId(), is(greaterThan(lastBeer.getId())));
+        beerRepository.deleteAll();
+    }
+
+    @Test
+    void whenSnapshotCannotBeLoadedThenStartupFailsAndTheFileIsNeverOverwritten() throws IOException {
+        // Given
+        Path path = tempDir.resolve("beers.snapshot");
+        Files.write(path, new byte[]{1, 2, 3});
+        SnapshotProperties snapshotProperties = new SnapshotProperties();
+        snapshotProperties.setEnabled(true);
+        snapshotProperties.setPath(path.toString());
+        BeerSnapshotService beerSnapshotService = new BeerSnapshotService(jdbcTemplate, transactionTemplate,
+                new ShardRouter(1), snapshotProperties);
+
+        //When
+        assertThrows(IllegalStateException.class, beerSnapshotService::load);
+        beerSnapshotService.snapshot();
+
+        //Then
+        assertFalse(Files.exists(path));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            List<Path> corruptFiles = files.collect(Collectors.toList());
+            assertThat(corruptFiles, hasSize(1));
+            assertThat(Files.readAllBytes(corruptFiles.get(0)), is(equalTo(new byte[]{1, 2, 3})));
+        }
+    }
+
+    @Test
+    void whenDatabaseFailsDuringLoadThenStartupFailsAndTheSnapshotStaysInPlace() throws IOException {
+        // Given
+        Path path = tempDir.resolve("beers.snapshot");
+        SnapshotProperties snapshotProperties = new SnapshotProperties();
+        snapshotProperties.setEnabled(true);
+        snapshotProperties.setPath(path.toString());
+        beerRepository.save(new Beer(null, "Polar", "Ambev", 50, 10, BeerType.LAGER));
+        new BeerSnapshotService(jdbcTemplate, transactionTemplate, new ShardRouter(1), snapshotProperties).snapshot();
+        beerRepository.deleteAll();
+        byte[] snapshot = Files.readAllBytes(path);
+        JdbcTemplate failingJdbcTemplate = mock(JdbcTemplate.class);
+        when(failingJdbcTemplate.queryForObject(anyString(), eq(Long.class)))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        BeerSnapshotService beerSnapshotService = new BeerSnapshotService(failingJdbcTemplate, transactionTemplate,
+                new ShardRouter(1), snapshotProperties);
+
+        //When
+        assertThrows(IllegalStateException.class, beerSnapshotService::load);
+        beerSnapshotService.snapshot();
+
+        //Then
+        assertThat(Files.readAllBytes(path), is(equalTo(snapshot)));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files.collect(Collectors.toList()), contains(path));
+        }
+    }
+
+    @Test
+    void whenSnapshotIsWrittenThenItRecordsTheJournalPositionItContains() {
+        // Given
+        SnapshotProperties snapshotProperties = new SnapshotProperties();
+        snapshotProperties.setEnabled(true);
+        snapshotProperties.setPath(tempDir.resolve("beers.snapshot").toString());
+        BeerSnapshotService beerSnapshotService = new BeerSnapshotService(jdbcTemplate, transactionTemplate,
+                new ShardRouter(1), snapshotProperties);
+        List<Long> writtenSequences = new ArrayList<>();
+        beerSnapshotService.registerJournalCheckpoint(new JournalCheckpoint() {
+            @Override
+            public <T> T whileApplyingIsPaused(LongFunction<T> read) {
+                return read.apply(42);
+            }
+
+            @Override
+            public void snapshotWritten(long sequence) {
+                writtenSequences.add(sequence);
+            }
+        });
+
+        //When
+        beerSnapshotService.snapshot();
+        BeerSnapshotService restartedSnapshotService = new BeerSnapshotService(jdbcTemplate, transactionTemplate,
+                new ShardRouter(1), snapshotProperties);
+        restartedSnapshotService.load();
+
+        //Then
+        assertThat(writtenSequences, contains(42L));
+        assertThat(restartedSnapshotService.getJournalSequence(), is(equalTo(42L)));
+    }
+}
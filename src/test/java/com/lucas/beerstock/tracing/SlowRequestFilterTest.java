@@ -0,0 +1,91 @@
+package com.lucas.beerstock.tracing;
+
+import com.lucas.beerstock.config.TracingProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+public class SlowRequestFilterTest {
+    private static final String BEER_API_URL_PATH = "/api/v1/beers";
+
+    private TracingProperties tracingProperties;
+
+    @BeforeEach
+    void setUp() {
+        tracingProperties = new TracingProperties();
+    }
+
+    @Test
+    void whenRequestExceedsThresholdThenItIsRecordedWithItsStages() throws Exception {
+        // Given
+        tracingProperties.setSlowRequestThresholdMillis(0);
+        SlowRequestRecorder recorder = new SlowRequestRecorder(tracingProperties);
+        SlowRequestFilter filter = new SlowRequestFilter(tracingProperties, recorder);
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                StageSpan.start(Stage.SERVICE, "findByName").end(new Object[]{"Polar"}, null);
+                StageSpan.start(Stage.SERVICE, "findByName").end(new Object[]{"Polar"}, null);
+            }
+        };
+
+        //When
+        filter.doFilter(new MockHttpServletRequest("GET", BEER_API_URL_PATH + "/Polar"),
+                new MockHttpServletResponse(), new MockFilterChain(servlet));
+
+        //Then
+        List<SlowRequest> slowRequests = recorder.newestFirst();
+        assertThat(slowRequests, hasSize(1));
+        assertThat(slowRequests.get(0).getUri(), is(equalTo(BEER_API_URL_PATH + "/Polar")));
+        assertThat(slowRequests.get(0).getBeerName(), is(equalTo("Polar")));
+        assertThat(slowRequests.get(0).getStages(), hasSize(1));
+        assertThat(slowRequests.get(0).getStages().get(0).getCalls(), is(equalTo(2)));
+        assertThat(RequestTrace.current() == null, is(true));
+    }
+
+    @Test
+    void whenRequestIsFastThenNothingIsRecorded() throws Exception {
+        // Given
+        tracingProperties.setSlowRequestThresholdMillis(60_000);
+        SlowRequestRecorder recorder = new SlowRequestRecorder(tracingProperties);
+        SlowRequestFilter filter = new SlowRequestFilter(tracingProperties, recorder);
+
+        //When
+        filter.doFilter(new MockHttpServletRequest("GET", BEER_API_URL_PATH),
+                new MockHttpServletResponse(), new MockFilterChain());
+
+        //Then
+        assertThat(recorder.newestFirst(), is(empty()));
+    }
+
+    @Test
+    void whenBufferIsFullThenOldestRequestsAreDroppedAndNewestComeFirst() {
+        // Given
+        tracingProperties.setSlowRequestBufferSize(2);
+        SlowRequestRecorder recorder = new SlowRequestRecorder(tracingProperties);
+
+        //When
+        for (int i = 1; i <= 3; i++) {
+            recorder.record(new SlowRequest(null, "GET", BEER_API_URL_PATH + "/" + i, 200, i, null, null, List.of()));
+        }
+
+        //Then
+        List<SlowRequest> slowRequests = recorder.newestFirst();
+        assertThat(slowRequests, hasSize(2));
+        assertThat(slowRequests.get(0).getUri(), is(equalTo(BEER_API_URL_PATH + "/3")));
+        assertThat(slowRequests.get(1).getUri(), is(equalTo(BEER_API_URL_PATH + "/2")));
+    }
+}
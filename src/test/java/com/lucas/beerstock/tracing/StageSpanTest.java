@@ -0,0 +1,58 @@
+package com.lucas.beerstock.tracing;
+
+import com.lucas.beerstock.entity.Beer;
+import com.lucas.beerstock.enums.BeerType;
+import com.lucas.beerstock.mapper.BeerMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class StageSpanTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestTrace current = RequestTrace.current();
+        if (current != null) {
+            current.finish();
+        }
+    }
+
+    @Test
+    void whenAListIsMappedThenTheMappingIsTimedOnceForAllRows() {
+        // Given
+        RequestTrace trace = RequestTrace.start("GET", "/api/v1/beers");
+        List<Beer> beers = Arrays.asList(new Beer(1L, "Polar", "Ambev", 50, 10, BeerType.LAGER),
+                new Beer(2L, "Skol", "Ambev", 50, 10, BeerType.LAGER),
+                new Beer(3L, "Brahma", "Ambev", 50, 10, BeerType.LAGER));
+
+        //When
+        BeerMapper.INSTANCE.toDTOs(beers);
+        BeerMapper.INSTANCE.toDTOs(beers);
+
+        //Then
+        List<StageSummary> summaries = trace.stageSummaries();
+        assertThat(summaries, hasSize(1));
+        assertThat(summaries.get(0).getStage(), is(equalTo(Stage.MAPPING)));
+        assertThat(summaries.get(0).getOperation(), is(equalTo("toDTOs")));
+        assertThat(summaries.get(0).getCalls(), is(equalTo(2)));
+        assertThat(summaries.get(0).getRows(), is(equalTo(6L)));
+    }
+
+    @Test
+    void whenThereIsNoTraceAndNoRecordingThenSpansAreShared() {
+        //When
+        StageSpan first = StageSpan.start(Stage.SERVICE, "findByName");
+        StageSpan second = StageSpan.start(Stage.REPOSITORY, "findById");
+
+        //Then
+        assertThat(first, is(sameInstance(second)));
+    }
+}